@@ -5,16 +5,20 @@
 //
 //Performance:
 //            * all operations is h (height of BST, proportional to logN if keys inserted in random order);
-//            * but the order iteration is N
+//            * but the order iteration is N, and keys(lo, hi) is h + the number of keys in the range
+//            * select(k) and size(lo, hi) use the count in every node, h as well
 //            *
 //            * TODO:(done) Insertions and serch in a BST built from N random keys require ~2lnN compares on the average
 //
 //            * BST search cost for random keys to be about 39% higher than that for binary search, the extra cost is well worthwhile,
 //            * the cost of inserting a new key is expected to be logarithmic
+//            * every operation is iterative, so no call overhead and no StackOverflowError however
+//              deep the tree gets (sorted keys make it a list of N levels: use RedBlackBST for those)
 //
 //-----------------------------------------------
 package base;
 
+import java.util.Iterator;
 import java.util.NoSuchElementException;
 //import java.util.Queue;
 
@@ -58,189 +62,301 @@ public class BST<Key extends Comparable<Key>, Value>
     }
 
     //return value associated with the given key, or null if no such key exists
+    //iterative: the hot lookup path makes no calls and cannot overflow the stack on a degenerate tree
     public Value get(Key key)
     {
-        return get(root, key);
+        Node x = find(key);
+        return x == null ? null : x.val;
     }
 
-    private Value get(Node x, Key key)
+    //the node holding key, or null
+    private Node find(Key key)
     {
-        if(x == null) return null;
-        int cmp = key.compareTo(x.key);
-        if(cmp < 0)
-            return get(x.left, key);
-        else if (cmp > 0)
-            return get(x.right, key);
-        else
-            return x.val;
-        
+        Node x = root;
+        while(x != null){
+            int cmp = key.compareTo(x.key);
+            if(cmp < 0)
+                x = x.left;
+            else if (cmp > 0)
+                x = x.right;
+            else
+                return x;
+        }
+        return null;
     }
                 
     //insert key-value pair into BST, if key already exists, update with new value
+    //the node at the root of the tree corresponds to the first partitioning item in quicksort;
+    // no keys to the left are larger, and no keys to the right are smaller
     public void put(Key key, Value val)
     {
-        //the node at the root of the tree corresponds to the first partitioning item in quicksort;
-        // no keys to the left are larger, and no keys to the right are smaller and the subtrees are built recursively
-        root = put(root, key, val);  //the root corresponds to the first partitioning item in quicksort
-    }
+        if(root == null){
+            root = new Node(key, val, 1);
+            return;
+        }
 
-    //the subtrees are built recursively, corresponding to quicksort's recursive subarray sorts
-    private Node put(Node x, Key key, Value val)
-    {
-        if(x == null)
-            return new Node(key, val, 1);  // return the ref to a new node, its left and right is null
-        
-        int cmp = key.compareTo(x.key);
-        if(cmp < 0)
-            x.left = put(x.left, key, val);  // x.left is null, after new Node, put this ref to the new node into x.left
-        else if (cmp > 0)
-            x.right = put(x.right, key, val);
-        else  //cmp == 0
-            x.val = val;  //reset the value
-        
-        x.count = size(x.left) + size(x.right) + 1;
+        //search for the key, remembering the last node on the path
+        Node parent = null, x = root;
+        int cmp = 0;
+        while(x != null){
+            cmp = key.compareTo(x.key);
+            if(cmp == 0){
+                x.val = val;  //reset the value, no count changes
+                return;
+            }
+            parent = x;
+            x = cmp < 0 ? x.left : x.right;
+        }
+        Node t = new Node(key, val, 1);
+        if(cmp < 0) parent.left = t;
+        else        parent.right = t;
 
-        return x; //return the root
+        //a new node was added: every node on the path to it has one more node in its subtree
+        for(x = root; x != t; x = key.compareTo(x.key) < 0 ? x.left : x.right)
+            x.count++;
     }
 
     public Key min(){
+        if(root == null) throw new NoSuchElementException("empty BST");
         return min(root).key;
     }
 
     private Node min(Node x){
-        if(x.left == null)
-            return x;
+        while(x.left != null)
+            x = x.left;
+        return x;
+    }
 
-        return min(x.left);
+    public Key max(){
+        if(root == null) throw new NoSuchElementException("empty BST");
+        Node x = root;
+        while(x.right != null)
+            x = x.right;
+        return x.key;
     }
     
-    //floor of key is the largest key in the BST less than or equal to key
+    //floor of key is the largest key in the BST less than or equal to key, null if there is none
     public Key floor(Key key){
-        Node x = floor(root, key);
-        if(x == null)
-            return null;
-
-        return x.key;
+        Key best = null;
+        Node x = root;
+        while(x != null){
+            int cmp = key.compareTo(x.key);
+            if(cmp == 0)
+                return x.key;
+            if(cmp < 0)
+                x = x.left;  //the floor is in the left subtree
+            else{
+                best = x.key;  //x.key < key: the floor, unless the right subtree has a larger key <= key
+                x = x.right;
+            }
+        }
+        return best;
     }
 
-    private Node floor(Node x, Key key){
-        if(x == null)
-            return null;
-        
-        int cmp = key.compareTo(x.key);
-        /*if(cmp == 0)
-            return x;
-        */
-        if(cmp < 0)
-            return floor(x.left, key);
-        if(cmp > 0)
-            return floor(x.right, key);
-        
-        return x; // cmp == 0;
+    //ceiling of key is the smallest key in the BST greater than or equal to key, null if there is none
+    public Key ceiling(Key key){
+        Key best = null;
+        Node x = root;
+        while(x != null){
+            int cmp = key.compareTo(x.key);
+            if(cmp == 0)
+                return x.key;
+            if(cmp > 0)
+                x = x.right;  //the ceiling is in the right subtree
+            else{
+                best = x.key;  //x.key > key: the ceiling, unless the left subtree has a smaller key >= key
+                x = x.left;
+            }
+        }
+        return best;
     }
 
-    //ceiling of key is the smallest key in the BST greater than or equal to key
-   /*
-    public int size(){
-        return size(root);
+    //select: the key of rank k, the (k+1)st smallest; select(rank(key)) == key for every key in the BST
+    //the counts tell which subtree holds it: k < size(x.left) is on the left, k == size(x.left) is x
+    public Key select(int k){
+        if(k < 0 || k >= size()) throw new IllegalArgumentException("rank " + k + " out of range for size " + size());
+        Node x = root;
+        while(true){
+            int t = size(x.left);
+            if(k < t)
+                x = x.left;
+            else if(k > t){
+                k -= t + 1;  //skip the left subtree and x
+                x = x.right;
+            }
+            else
+                return x.key;
+        }
     }
 
-    private int size(Node x){
-        if(x == null)
-            return 0;
-        return x.count;
-    }
-    */
     //rank: how many keys < k ?
     public int rank(Key key){
-        return rank(key, root);
-    }
-
-    private int rank(Key key, Node x){
-        //return num of keys less than x.key in the subtree rooted at x
-        if (x == null)
-            return 0;
-        int cmp = key.compareTo(x.key);
-        if(cmp < 0)
-            return rank(key, x.left); // the nodes on the left is less than the Node
-        else if(cmp > 0)
-            return 1 + size(x.left) + rank(key, x.right);
-        /*
-        else if(cmp == 0)
-            return size(x.left);
-        */
-        return size(x.left); //cmp == 0
+        int r = 0;
+        Node x = root;
+        while(x != null){
+            int cmp = key.compareTo(x.key);
+            if(cmp < 0)
+                x = x.left; // the nodes on the left is less than the Node
+            else if(cmp > 0){
+                r += 1 + size(x.left);
+                x = x.right;
+            }
+            else
+                return r + size(x.left);
+        }
+        return r;
     }
     
     //Iteration operation, it base on in-order traversal
+    //lazy: the iterator keeps the path of nodes still to visit on an explicit stack (at most h nodes)
+    //and yields one key per next(), so no Queue of all N keys is built;
+    //the tree must not be changed while it is being iterated
     public Iterable<Key> keys(){
-        Queue<Key> q = new Queue<Key>();
-        inorder(root, q);
-        return q;
+        return keys(null, null);
+    }
+
+    //the keys in [lo, hi] in ascending order, lazily like keys(): the subtrees out of the range are
+    //never visited, so it is ~h + (number of keys in range)
+    public Iterable<Key> keys(final Key lo, final Key hi){
+        return new Iterable<Key>() {
+            public Iterator<Key> iterator() { return new KeyIterator(lo, hi); }
+        };
+    }
+
+    //number of keys in [lo, hi]
+    public int size(Key lo, Key hi){
+        if(lo.compareTo(hi) > 0) return 0;
+        int n = rank(hi) - rank(lo);
+        return find(hi) != null ? n + 1 : n;
     }
 
     //Inorder traversal of a BST yields keys in ascending order
-    private void inorder(Node x, Queue<Key>  q){
-        if(x == null)
-            return;
-        //put all the keys in the data structure on the queue in their natural order
-        inorder(x.left, q); //traverse left subtree
-        q.insert(x.key); //enqueue the key
-        inorder(x.right, q);  //traverse right subtreex
+    //lo, hi bound the keys, null for no bound
+    private class KeyIterator implements Iterator<Key>
+    {
+        private final Stack<Node> stack = new Stack<Node>();
+        private final Key lo, hi;
+
+        KeyIterator(Key lo, Key hi)
+        {
+            this.lo = lo;
+            this.hi = hi;
+            pushLeft(root);
+        }
+
+        //push x and its left spine: the next key is at the top
+        //a node out of [lo, hi] is not pushed: one < lo is skipped with its left subtree,
+        //one > hi with its right subtree, so only keys in the range are ever on the stack
+        private void pushLeft(Node x)
+        {
+            while(x != null){
+                if(lo != null && x.key.compareTo(lo) < 0)
+                    x = x.right;
+                else if(hi != null && x.key.compareTo(hi) > 0)
+                    x = x.left;
+                else{
+                    stack.push(x);
+                    x = x.left;
+                }
+            }
+        }
+
+        public boolean hasNext()
+        {
+            return !stack.isEmpty();
+        }
+
+        public Key next()
+        {
+            if(!hasNext()) throw new NoSuchElementException();
+            Node x = stack.pop();
+            pushLeft(x.right);  //the keys of the right subtree come before the rest of the stack
+            return x.key;
+        }
+
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
     }
 
     //delete the min key
+    //* go left until finding a node with a null left link
+    //* replace that node by its right link
+    //* update subtree counts on the way
     public void deleteMin(){
-        root = deleteMin(root);
-    }
-    private Node deleteMin(Node x){
-        //* go left until finding a node with a null left link
-        //* replace that node by its right link
-        //* update subtree counts
-        if(x.left == null)
-            return x.right;
-        
-        x.left = deleteMin(x.left);
-        x.count = 1 + size(x.left) + size(x.right);
-        
-        return x;
+        if(root == null) throw new NoSuchElementException("empty BST");
+        if(root.left == null){
+            root = root.right;
+            return;
+        }
+        Node x = root;
+        while(x.left.left != null){
+            x.count--;
+            x = x.left;
+        }
+        x.count--;
+        x.left = x.left.right;
+    }
+
+    //delete the max key, the mirror of deleteMin
+    public void deleteMax(){
+        if(root == null) throw new NoSuchElementException("empty BST");
+        if(root.right == null){
+            root = root.left;
+            return;
+        }
+        Node x = root;
+        while(x.right.right != null){
+            x.count--;
+            x = x.right;
+        }
+        x.count--;
+        x.right = x.right.left;
     }
 
     //Hibbard deletion
     //disadvantage: not symmetric, the tree is becoming much less balanced than it was
     //
     public void delete(Key key){
-        root = delete(root, key);
-    }
-
-    private Node delete(Node x, Key key){
-        if(x == null)
-            return null;
-        int cmp = key.compareTo(x.key);
-        //serarch the key
-        if (cmp < 0)
-            x.left = delete(x.left, key);
-        else if (cmp > 0)
-            x.right = delete(x.right, key);
+        if(find(key) == null)
+            return;  //not in the tree, and no count changes
+
+        //search the key, every node on the way loses one node in its subtree
+        Node parent = null, x = root;
+        int cmp;
+        while((cmp = key.compareTo(x.key)) != 0){
+            x.count--;
+            parent = x;
+            x = cmp < 0 ? x.left : x.right;
+        }
+
+        Node t;
+        // case 0 and case 1, no child or only one child
+        if(x.right == null)
+            t = x.left;
+        else if(x.left == null)
+            t = x.right;
         else{
-            //no right child
-            // case 0, no child
-            // case 1, only one child
-            if(x.right == null)
-                return x.left;
-            
-            // have a right child
-            //case 2; have two children
-            Node t = x;
-            x = min(t.right); //find the min on the right
-            x.right = deleteMin(t.right); //delete the min on the right and replace with successor
-            x.left = t.left; //fix the links
-        }
-
-        x.count = size(x.left) + size(x.right) + 1;
+            //case 2; have two children: replace x with its successor, the min on the right
+            Node minParent = null;
+            t = x.right;
+            while(t.left != null){
+                t.count--;
+                minParent = t;
+                t = t.left;
+            }
+            if(minParent != null){
+                minParent.left = t.right;  //delete the min on the right
+                t.right = x.right;
+            }
+            t.left = x.left; //fix the links
+            t.count = x.count - 1;
+        }
 
-        return x;
-        
+        if(parent == null)          root = t;
+        else if(parent.left == x)   parent.left = t;
+        else                        parent.right = t;
     }
         
 }
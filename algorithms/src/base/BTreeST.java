@@ -0,0 +1,493 @@
+//BTreeST.java
+//Description: * an ordered symbol table in a B+-tree: every node holds up to M-1 keys in a sorted array,
+//               so a search reads a few contiguous arrays instead of one scattered object per key
+//             * the leaves hold all the keys and values, in order, and are linked left to right,
+//               so range scans walk the leaves; an internal node holds its children and the
+//               separators keys[i] (i >= 1): keys of children[i-1] < keys[i] <= keys of children[i]
+//             * every node but the root has at least M/2 entries: a full node splits in two and
+//               passes the first key of the new right half up; a node that falls below M/2 after a
+//               delete borrows an entry from a sibling, or merges with it when the sibling has none to spare
+//             * every node also counts the keys in its subtree, for rank()
+//             * fanout M is set in the constructor, DEFAULT_FANOUT otherwise
+//             * values are never null: put(key, null) deletes the key, like in RedBlackBST
+//
+//Performance:
+//            * height ~log_{M/2} N: 4 levels hold 100M keys with M = 128
+//            * get, put, delete, floor, ceiling, rank are ~lgN compares (binary search in every node)
+//              plus ~M moves for the insert/delete in a node; min and max follow the outer edge
+//            * keys(lo, hi) is ~lgN to find lo, then one step per key, lazily
+//            * about 2 references per key in the leaves (plus ~1/M of that in the internal nodes),
+//              against a node object of 5 fields per key in BST
+//
+// Execution: java BTreeST 4 < tobe.txt
+//-----------------------------------------------
+package base;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class BTreeST<Key extends Comparable<Key>, Value>
+{
+    public static final int DEFAULT_FANOUT = 128;
+
+    private final int M;    //max children (internal node) or entries + 1 (leaf) per node
+    private final int MIN;  //min entries of a node other than the root
+    private Node root;
+
+    //a leaf (children == null) or an internal node
+    private static final class Node
+    {
+        private int n;                 //number of keys (leaf) or children (internal node)
+        private int size;              //number of keys in the subtree
+        private final Comparable[] keys;
+        private final Object[] vals;   //leaf only
+        private final Node[] children; //internal node only
+        private Node next;             //leaf only: the leaf to the right
+
+        Node(int M, boolean leaf)
+        {
+            keys = new Comparable[M];
+            vals = leaf ? new Object[M] : null;
+            children = leaf ? null : new Node[M];
+        }
+
+        boolean isLeaf()
+        {
+            return children == null;
+        }
+    }
+
+    //1 if the last put added a key, 0 if it replaced a value; 1 if the last delete removed a key
+    private int changed;
+
+    public BTreeST()
+    {
+        this(DEFAULT_FANOUT);
+    }
+
+    public BTreeST(int fanout)
+    {
+        if(fanout < 4) throw new IllegalArgumentException("fanout must be at least 4");
+        M = fanout;
+        MIN = fanout / 2;
+        root = new Node(M, true);
+    }
+
+    public int size()
+    {
+        return root.size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    //number of levels, 1 for a single leaf
+    public int height()
+    {
+        int h = 1;
+        for(Node x = root; !x.isLeaf(); x = x.children[0])
+            h++;
+        return h;
+    }
+
+    //return value associated with the given key, or null if no such key exists
+    public Value get(Key key)
+    {
+        Node x = root;
+        while(!x.isLeaf())
+            x = x.children[child(x, key)];
+        int i = search(x, key);
+        return i >= 0 ? (Value) x.vals[i] : null;
+    }
+
+    public boolean contains(Key key)
+    {
+        return get(key) != null;
+    }
+
+    //index of the child of internal node x whose subtree holds key: the last i with keys[i] <= key, or 0
+    private int child(Node x, Key key)
+    {
+        int lo = 1, hi = x.n - 1;
+        while(lo <= hi){
+            int mid = lo + (hi - lo) / 2;
+            if(key.compareTo((Key) x.keys[mid]) < 0) hi = mid - 1;
+            else                                     lo = mid + 1;
+        }
+        return hi;
+    }
+
+    //index of key in leaf x, or -(insertion point) - 1 like Arrays.binarySearch
+    private int search(Node x, Key key)
+    {
+        int lo = 0, hi = x.n - 1;
+        while(lo <= hi){
+            int mid = lo + (hi - lo) / 2;
+            int cmp = key.compareTo((Key) x.keys[mid]);
+            if(cmp < 0)      hi = mid - 1;
+            else if(cmp > 0) lo = mid + 1;
+            else             return mid;
+        }
+        return -(lo + 1);
+    }
+
+    //insert key-value pair, if key already exists, update with new value;
+    //a null value deletes the key, so that get() returning null always means the key is absent
+    public void put(Key key, Value val)
+    {
+        if(val == null){
+            delete(key);
+            return;
+        }
+        Node right = put(root, key, val);
+        if(right == null)
+            return;
+
+        //the root split: the tree grows one level at the top
+        Node t = new Node(M, false);
+        t.children[0] = root;
+        t.children[1] = right;
+        t.keys[1] = right.keys[0];
+        t.n = 2;
+        t.size = root.size + right.size;
+        root = t;
+    }
+
+    //insert into the subtree of h, return the new right half of h if h split, else null
+    private Node put(Node h, Key key, Value val)
+    {
+        if(h.isLeaf()){
+            int i = search(h, key);
+            if(i >= 0){
+                h.vals[i] = val;
+                changed = 0;
+                return null;
+            }
+            i = -i - 1;
+            System.arraycopy(h.keys, i, h.keys, i + 1, h.n - i);
+            System.arraycopy(h.vals, i, h.vals, i + 1, h.n - i);
+            h.keys[i] = key;
+            h.vals[i] = val;
+            h.n++;
+            h.size++;
+            changed = 1;
+            return h.n == M ? split(h) : null;
+        }
+
+        int i = child(h, key);
+        Node right = put(h.children[i], key, val);
+        h.size += changed;
+        if(right == null)
+            return null;
+
+        //link the new child right after the one that split
+        System.arraycopy(h.keys, i + 1, h.keys, i + 2, h.n - i - 1);
+        System.arraycopy(h.children, i + 1, h.children, i + 2, h.n - i - 1);
+        h.keys[i + 1] = right.keys[0];
+        h.children[i + 1] = right;
+        h.n++;
+        return h.n == M ? split(h) : null;
+    }
+
+    //move the upper half of the full node h to a new node and return it;
+    //its keys[0] is the separator for the parent (for an internal node that slot is not a separator)
+    private Node split(Node h)
+    {
+        int half = M / 2;
+        Node t = new Node(M, h.isLeaf());
+        t.n = M - half;
+        System.arraycopy(h.keys, half, t.keys, 0, t.n);
+        Arrays.fill(h.keys, half, M, null);
+        if(h.isLeaf()){
+            System.arraycopy(h.vals, half, t.vals, 0, t.n);
+            Arrays.fill(h.vals, half, M, null);
+            t.size = t.n;
+            t.next = h.next;
+            h.next = t;
+        }
+        else{
+            System.arraycopy(h.children, half, t.children, 0, t.n);
+            Arrays.fill(h.children, half, M, null);
+            for(int i = 0; i < t.n; i++)
+                t.size += t.children[i].size;
+        }
+        h.n = half;
+        h.size -= t.size;
+        return t;
+    }
+
+    //delete the key and its value, if it is in the table
+    public void delete(Key key)
+    {
+        delete(root, key);
+        //the root lost its last but one child: the tree shrinks one level at the top
+        if(!root.isLeaf() && root.n == 1)
+            root = root.children[0];
+    }
+
+    private void delete(Node h, Key key)
+    {
+        if(h.isLeaf()){
+            int i = search(h, key);
+            if(i < 0){
+                changed = 0;
+                return;
+            }
+            System.arraycopy(h.keys, i + 1, h.keys, i, h.n - i - 1);
+            System.arraycopy(h.vals, i + 1, h.vals, i, h.n - i - 1);
+            h.n--;
+            h.keys[h.n] = null;
+            h.vals[h.n] = null;
+            h.size--;
+            changed = 1;
+            return;
+        }
+
+        int i = child(h, key);
+        Node c = h.children[i];
+        delete(c, key);
+        h.size -= changed;
+        if(c.n >= MIN)
+            return;
+
+        //c is too small: borrow from a sibling that can spare an entry, else merge with a sibling
+        if(i > 0 && h.children[i-1].n > MIN)
+            borrowFromLeft(h, i);
+        else if(i < h.n - 1 && h.children[i+1].n > MIN)
+            borrowFromRight(h, i);
+        else if(i > 0)
+            merge(h, i - 1);
+        else if(h.n > 1)
+            merge(h, i);
+    }
+
+    //move the last entry of children[i-1] to the front of children[i]
+    private void borrowFromLeft(Node h, int i)
+    {
+        Node l = h.children[i-1], c = h.children[i];
+        System.arraycopy(c.keys, 0, c.keys, 1, c.n);
+        if(c.isLeaf()){
+            System.arraycopy(c.vals, 0, c.vals, 1, c.n);
+            c.keys[0] = l.keys[l.n-1];
+            c.vals[0] = l.vals[l.n-1];
+            l.keys[l.n-1] = null;
+            l.vals[l.n-1] = null;
+            l.size--;
+            c.size++;
+            h.keys[i] = c.keys[0];
+        }
+        else{
+            System.arraycopy(c.children, 0, c.children, 1, c.n);
+            Node moved = l.children[l.n-1];
+            c.children[0] = moved;
+            c.keys[1] = h.keys[i];   //the old separator bounds the old first child of c
+            h.keys[i] = l.keys[l.n-1];
+            l.keys[l.n-1] = null;
+            l.children[l.n-1] = null;
+            l.size -= moved.size;
+            c.size += moved.size;
+        }
+        l.n--;
+        c.n++;
+    }
+
+    //move the first entry of children[i+1] to the end of children[i]
+    private void borrowFromRight(Node h, int i)
+    {
+        Node c = h.children[i], r = h.children[i+1];
+        if(c.isLeaf()){
+            c.keys[c.n] = r.keys[0];
+            c.vals[c.n] = r.vals[0];
+            System.arraycopy(r.keys, 1, r.keys, 0, r.n - 1);
+            System.arraycopy(r.vals, 1, r.vals, 0, r.n - 1);
+            r.keys[r.n-1] = null;
+            r.vals[r.n-1] = null;
+            r.size--;
+            c.size++;
+            h.keys[i+1] = r.keys[0];
+        }
+        else{
+            Node moved = r.children[0];
+            c.children[c.n] = moved;
+            c.keys[c.n] = h.keys[i+1];   //the old separator bounds the first child of r
+            h.keys[i+1] = r.keys[1];
+            System.arraycopy(r.keys, 1, r.keys, 0, r.n - 1);
+            System.arraycopy(r.children, 1, r.children, 0, r.n - 1);
+            r.keys[r.n-1] = null;
+            r.children[r.n-1] = null;
+            r.size -= moved.size;
+            c.size += moved.size;
+        }
+        r.n--;
+        c.n++;
+    }
+
+    //append children[i+1] to children[i] and remove it from h
+    private void merge(Node h, int i)
+    {
+        Node l = h.children[i], r = h.children[i+1];
+        System.arraycopy(r.keys, 0, l.keys, l.n, r.n);
+        if(l.isLeaf()){
+            System.arraycopy(r.vals, 0, l.vals, l.n, r.n);
+            l.next = r.next;
+        }
+        else{
+            System.arraycopy(r.children, 0, l.children, l.n, r.n);
+            l.keys[l.n] = h.keys[i+1];   //the separator of r bounds its first child
+        }
+        l.n += r.n;
+        l.size += r.size;
+
+        System.arraycopy(h.keys, i + 2, h.keys, i + 1, h.n - i - 2);
+        System.arraycopy(h.children, i + 2, h.children, i + 1, h.n - i - 2);
+        h.n--;
+        h.keys[h.n] = null;
+        h.children[h.n] = null;
+    }
+
+    public Key min()
+    {
+        if(isEmpty()) throw new NoSuchElementException("empty symbol table");
+        Node x = root;
+        while(!x.isLeaf())
+            x = x.children[0];
+        return (Key) x.keys[0];
+    }
+
+    public Key max()
+    {
+        if(isEmpty()) throw new NoSuchElementException("empty symbol table");
+        Node x = root;
+        while(!x.isLeaf())
+            x = x.children[x.n-1];
+        return (Key) x.keys[x.n-1];
+    }
+
+    //largest key <= key, null if there is none
+    public Key floor(Key key)
+    {
+        //the separators only bound the keys, so the floor can be the max of the subtree just
+        //left of the path: remember the last one passed
+        Node x = root, left = null;
+        while(!x.isLeaf()){
+            int i = child(x, key);
+            if(i > 0) left = x.children[i-1];
+            x = x.children[i];
+        }
+        int i = search(x, key);
+        if(i >= 0) return (Key) x.keys[i];
+        i = -i - 2;   //the last key < key
+        if(i >= 0) return (Key) x.keys[i];
+        if(left == null) return null;
+        while(!left.isLeaf())
+            left = left.children[left.n-1];
+        return (Key) left.keys[left.n-1];
+    }
+
+    //smallest key >= key, null if there is none
+    public Key ceiling(Key key)
+    {
+        Node x = leaf(key);
+        int i = search(x, key);
+        if(i < 0) i = -i - 1;   //the first key > key
+        if(i < x.n) return (Key) x.keys[i];
+        return x.next == null ? null : (Key) x.next.keys[0];
+    }
+
+    //the leaf whose range holds key
+    private Node leaf(Key key)
+    {
+        Node x = root;
+        while(!x.isLeaf())
+            x = x.children[child(x, key)];
+        return x;
+    }
+
+    //rank: how many keys < key ?
+    public int rank(Key key)
+    {
+        int r = 0;
+        Node x = root;
+        while(!x.isLeaf()){
+            int i = child(x, key);
+            for(int j = 0; j < i; j++)
+                r += x.children[j].size;
+            x = x.children[i];
+        }
+        int i = search(x, key);
+        return r + (i >= 0 ? i : -i - 1);
+    }
+
+    public Iterable<Key> keys()
+    {
+        if(isEmpty()) return new Queue<Key>();
+        return keys(min(), max());
+    }
+
+    //the keys in [lo, hi] in ascending order, lazily: the iterator walks the linked leaves
+    public Iterable<Key> keys(final Key lo, final Key hi)
+    {
+        return new Iterable<Key>() {
+            public Iterator<Key> iterator() { return new RangeIterator(lo, hi); }
+        };
+    }
+
+    private class RangeIterator implements Iterator<Key>
+    {
+        private final Key hi;
+        private Node x;   //leaf of the next key, null when done
+        private int i;    //index of the next key in x
+
+        RangeIterator(Key lo, Key hi)
+        {
+            this.hi = hi;
+            x = leaf(lo);
+            i = search(x, lo);
+            if(i < 0) i = -i - 1;
+            advance();
+        }
+
+        //step over the end of a leaf, and stop after hi
+        private void advance()
+        {
+            if(x != null && i == x.n){
+                x = x.next;
+                i = 0;
+            }
+            if(x != null && hi.compareTo((Key) x.keys[i]) < 0)
+                x = null;
+        }
+
+        public boolean hasNext()
+        {
+            return x != null;
+        }
+
+        public Key next()
+        {
+            if(!hasNext()) throw new NoSuchElementException();
+            Key key = (Key) x.keys[i++];
+            advance();
+            return key;
+        }
+
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    //test
+    public static void main(String[] args)
+    {
+        BTreeST<String, Integer> st = new BTreeST<String, Integer>(Integer.parseInt(args[0]));
+        for(int i = 0; !StdIn.isEmpty(); i++)
+            st.put(StdIn.readString(), i);
+        for(String s : st.keys())
+            StdOut.println(s + " " + st.get(s));
+        StdOut.println("size " + st.size() + ", height " + st.height());
+    }
+}
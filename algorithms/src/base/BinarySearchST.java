@@ -9,14 +9,22 @@
    
    3) but, inserting a new key into an ordered array of size N uses ~2N array accesses in the worst case, so inserting N keys into an initially empty table uses ~N*N array accesses in the worst case
 
-   4) java BinarySearchST < tobe1.txt
+   4) so to load many keys at once use putAll() or the bulk constructor: the new pairs are sorted once with a stable
+      mergesort, a key given more than once keeps its last value, and the result is merged with the table in one pass,
+      ~MlgM compares + ~(N+M) array accesses for M new keys
+
+   5) freeze() a table that is only read from then on: FrozenST keeps the keys in a cache-friendly layout
+
+   6) java BinarySearchST < tobe1.txt
        
 */
 package base;
 
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.NoSuchElementException;
-import java.util.Queue;
-import java.util.LinkedList;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 /*
   // Comparable interface built in Java
@@ -43,6 +51,12 @@ public class BinarySearchST<Key extends Comparable<Key>, Value>
         vals = (Value[]) new Object[capacity];
     }
 
+    //with the given pairs, keys[i] -> vals[i]; a repeated key keeps its last value
+    public BinarySearchST(Key[] keys, Value[] vals){
+        this(INIT_CAPACITY);
+        putAll(keys, vals);
+    }
+
     private void resize(int capacity){
         Key[]  tempk = (Key[]) new Comparable[capacity];
         Value[] tempv = (Value[]) new Object[capacity];
@@ -105,20 +119,106 @@ public class BinarySearchST<Key extends Comparable<Key>, Value>
         N++;
     }
 
+    //put every pair keys[i] -> vals[i], like put() in order of i, so a repeated key keeps its last value
+    public void putAll(Key[] keys, Value[] vals){
+        if(keys.length != vals.length)
+            throw new IllegalArgumentException("keys and vals have different lengths");
+        int M = keys.length;
+        if(M == 0) return;
+
+        //sort the new pairs by key, stable so equal keys stay in the order they were given
+        Entry[] e = new Entry[M];
+        for(int i = 0; i < M; i++)
+            e[i] = new Entry(keys[i], vals[i]);
+        Merge.sort(e, new Comparator<Entry>(){
+            public int compare(Entry v, Entry w) { return v.key.compareTo(w.key); }
+        });
+
+        //merge the table and the new pairs into new arrays; on equal keys the last new pair wins
+        Key[] tempk = (Key[]) new Comparable[Math.max(N + M, this.keys.length)];
+        Value[] tempv = (Value[]) new Object[tempk.length];
+        int i = 0, j = 0, n = 0;
+        while(i < N || j < M){
+            int cmp;
+            if(i == N)      cmp = 1;
+            else if(j == M) cmp = -1;
+            else            cmp = this.keys[i].compareTo((Key) e[j].key);
+
+            if(cmp < 0){
+                tempk[n] = this.keys[i];
+                tempv[n++] = this.vals[i++];
+            }
+            else{
+                if(cmp == 0) i++;  //the table's value is replaced
+                while(j + 1 < M && e[j].key.compareTo(e[j+1].key) == 0)
+                    j++;           //skip to the last of the equal new keys
+                tempk[n] = (Key) e[j].key;
+                tempv[n++] = (Value) e[j++].val;
+            }
+        }
+        this.keys = tempk;
+        this.vals = tempv;
+        N = n;
+    }
+
+    //an immutable copy of the table with faster lookups, for a table that is only read from now on
+    public FrozenST<Key, Value> freeze(){
+        return new FrozenST<Key, Value>(keys, vals, N);
+    }
+
+    private static class Entry {
+        private final Comparable key;
+        private final Object val;
+
+        Entry(Comparable key, Object val){
+            this.key = key;
+            this.val = val;
+        }
+    }
+
     public Iterable<Key> keys() {
-        return keys(keys[0], keys[N-1]);
+        return new Range(0, N);
     }
 
+    //the keys in [lo, hi] in ascending order, a view of keys[] (no copy): the ranks are computed once
+    //here, and the view reads the table as it is then, so do not put() while iterating over it
     public Iterable<Key> keys(Key lo, Key hi){
-        Queue<Key> queue= new LinkedList<Key>();
+        if(lo.compareTo(hi) > 0) return new Range(0, 0);
+        int to = rank(hi);
+        if(to < N && keys[to].compareTo(hi) == 0) to++;
+        return new Range(rank(lo), to);
+    }
 
-        if(lo.compareTo(hi) > 0) return queue;
-        for(int i = rank(lo); i <= rank(hi); i++)
-            queue.add(keys[i]);
-        return queue;
-        
+    //keys[from..to-1]; the spliterator is sized and splits in halves, so a parallel stream can use it
+    private class Range implements Iterable<Key> {
+        private final Key[] a = keys;
+        private final int from, to;
+
+        Range(int from, int to){
+            this.from = from;
+            this.to = to;
+        }
+
+        public Iterator<Key> iterator(){
+            return new Iterator<Key>(){
+                private int i = from;
+
+                public boolean hasNext() { return i < to; }
+
+                public Key next(){
+                    if(i >= to) throw new NoSuchElementException();
+                    return a[i++];
+                }
+
+                public void remove() { throw new UnsupportedOperationException(); }
+            };
+        }
+
+        public Spliterator<Key> spliterator(){
+            return Spliterators.spliterator(a, from, to, Spliterator.ORDERED | Spliterator.SORTED
+                                                         | Spliterator.DISTINCT | Spliterator.NONNULL);
+        }
     }
-        
 
     //Test client
     public static void main(String[] args)
@@ -0,0 +1,144 @@
+/*
+Bubble.java: wenlong
+Description: bubble sort
+Assume: 1) total order (like v.compareTo(w))
+        2) callback = reference to executable code
+              * client passes array of objects to sort() function
+              * The sort() function calls back object's compareTo() method as needed
+                   ---user-defined comparable types implement the comparable interface
+
+Performance: ~N*N/2 compares and up to ~N*N/2 exchanges
+---------------------------------------------------------------------------------------------------
+*/
+package base;
+
+import java.lang.Comparable;
+import java.util.Comparator;
+//this sorting logic must be in same class whose objects are being sorted,
+//this is called natural ordering of objects
+
+/*
+  // Comparable interface built in Java
+  public interface Comparable<Item>
+  {
+     public int compareTo(Item that);
+  }
+*/
+
+//bubble sort
+class Bubble
+{
+    public static void sort(Comparable[] a)
+    {
+        int N = a.length;
+        //find the remaining biggest in every loop
+        for(int out=N-1; out>0; out--) // outer loop is backward
+            for(int in=0; in<out; in++) // inner loop is forward
+                if ( less(a[in+1],a[in]) )
+                    swap(a, in, in+1);
+    }
+
+    //sort using an alternate order
+    public static <T> void sort(T[] a, Comparator<? super T> c)
+    {
+        int N = a.length;
+        for(int out=N-1; out>0; out--)
+            for(int in=0; in<out; in++)
+                if ( less(c, a[in+1], a[in]) )
+                    swap(a, in, in+1);
+    }
+
+    //primitive keys
+    public static void sort(int[] a)
+    {
+        int N = a.length;
+        for(int out=N-1; out>0; out--)
+            for(int in=0; in<out; in++)
+                if ( less(a[in+1],a[in]) )
+                    swap(a, in, in+1);
+    }
+
+    public static void sort(long[] a)
+    {
+        int N = a.length;
+        for(int out=N-1; out>0; out--)
+            for(int in=0; in<out; in++)
+                if ( less(a[in+1],a[in]) )
+                    swap(a, in, in+1);
+    }
+
+    public static void sort(double[] a)
+    {
+        int N = a.length;
+        for(int out=N-1; out>0; out--)
+            for(int in=0; in<out; in++)
+                if ( less(a[in+1],a[in]) )
+                    swap(a, in, in+1);
+    }
+
+    //exchange a[i] and a[j]
+    public static void swap(Comparable[] a, int i, int j)
+    {
+        SortStats.swap();
+        Comparable temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static boolean less(Comparable v, Comparable w)
+    {
+        SortStats.compare();
+        return v.compareTo(w) < 0;
+    }
+
+    private static <T> boolean less(Comparator<? super T> c, T v, T w)
+    {
+        SortStats.compare();
+        return c.compare(v, w) < 0;
+    }
+
+    private static void swap(Object[] a, int i, int j)
+    {
+        SortStats.swap();
+        Object temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static void swap(int[] a, int i, int j)
+    {
+        int temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static void swap(long[] a, int i, int j)
+    {
+        long temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static void swap(double[] a, int i, int j)
+    {
+        double temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static boolean less(int v, int w)
+    {
+        return v < w;
+    }
+
+    private static boolean less(long v, long w)
+    {
+        return v < w;
+    }
+
+    //Double.compare is the order of Double.compareTo: -0.0 < 0.0 and NaN is the largest
+    private static boolean less(double v, double w)
+    {
+        return Double.compare(v, w) < 0;
+    }
+}
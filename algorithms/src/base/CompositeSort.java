@@ -0,0 +1,123 @@
+//CompositeSort.java
+//Description: sort by several int keys (first key, then second key for ties, ...) in one sort
+//   instead of one stable pass per key (like sorting Dates by year, then by month)
+//   * every key is extracted once per item, into a column of ints
+//   * if the keys fit, (key1 - min1, key2 - min2, ..., index) are packed into one long per item,
+//     using just enough bits for the range of each key, and the longs are radix sorted once
+//   * otherwise, one radix sort per key, from the last key to the first, each packing
+//     (key - min, position) so that every pass is stable (LSD on the keys)
+//   * the index/position in the low bits makes every packed value distinct, so the result is stable
+//
+//Performance: no comparator calls; N extractions per key, then 8 or fewer byte passes over N longs
+//             per radix sort, and constant high bytes are skipped
+//
+// Execution: java CompositeSort < tobe.txt   (sorts by length, then by first character)
+//---------------------------------------------
+package base;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+public class CompositeSort
+{
+    private CompositeSort() { }
+
+    //sort a[] by keys[0], then keys[1], ..., stable
+    @SafeVarargs
+    public static <T> void sort(T[] a, ToIntFunction<? super T>... keys)
+    {
+        List<ToIntFunction<? super T>> list = new ArrayList<ToIntFunction<? super T>>(keys.length);
+        for (ToIntFunction<? super T> key : keys)
+            list.add(key);
+        int[] index = permutation(a, list);
+        T[] copy = a.clone();
+        for (int i = 0; i < a.length; i++)
+            a[i] = copy[index[i]];
+    }
+
+    //return the stable sorted permutation: a[index[0]] is the smallest item, a[index[1]] the next, ...
+    //a[] itself is not changed
+    @SafeVarargs
+    public static <T> int[] index(T[] a, ToIntFunction<? super T>... keys)
+    {
+        List<ToIntFunction<? super T>> list = new ArrayList<ToIntFunction<? super T>>(keys.length);
+        for (ToIntFunction<? super T> key : keys)
+            list.add(key);
+        return permutation(a, list);
+    }
+
+    //index() for both public entry points; they copy the keys into a list, because passing the
+    //varargs array of a generic type on to another method is what @SafeVarargs cannot vouch for
+    private static <T> int[] permutation(T[] a, List<ToIntFunction<? super T>> keys)
+    {
+        int N = a.length;
+        int K = keys.size();
+
+        //extract the keys once, and find how many bits the range of each key needs
+        int[][] column = new int[K][N];
+        long[] min = new long[K];
+        int[] bits = new int[K];
+        for (int k = 0; k < K; k++){
+            int lo = Integer.MAX_VALUE, hi = Integer.MIN_VALUE;
+            for (int i = 0; i < N; i++){
+                int v = keys.get(k).applyAsInt(a[i]);
+                column[k][i] = v;
+                if (v < lo) lo = v;
+                if (v > hi) hi = v;
+            }
+            min[k] = lo;
+            bits[k] = N == 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros((long) hi - lo);
+        }
+        int indexBits = Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(N - 1, 0));
+
+        int total = indexBits;
+        for (int k = 0; k < K; k++)
+            total += bits[k];
+
+        long[] packed = new long[N];
+        long[] aux = new long[N];
+        int[] index = new int[N];
+        long mask = (1L << indexBits) - 1;
+
+        //63 bits keep the packed values non negative, so the signed order is the order of the keys
+        if (total <= Long.SIZE - 1){
+            for (int i = 0; i < N; i++){
+                long p = 0;
+                for (int k = 0; k < K; k++)
+                    p = (p << bits[k]) | (column[k][i] - min[k]);
+                packed[i] = (p << indexBits) | i;
+            }
+            Radix.sort(packed, aux);
+            for (int i = 0; i < N; i++)
+                index[i] = (int) (packed[i] & mask);
+            return index;
+        }
+
+        //too wide for one long: a stable radix sort by each key, least significant key first
+        for (int i = 0; i < N; i++)
+            index[i] = i;
+        int[] next = new int[N];
+        for (int k = K-1; k >= 0; k--){
+            for (int i = 0; i < N; i++)
+                packed[i] = ((column[k][index[i]] - min[k]) << indexBits) | i;
+            Radix.sort(packed, aux);
+            for (int i = 0; i < N; i++)
+                next[i] = index[(int) (packed[i] & mask)];
+            int[] t = index;
+            index = next;
+            next = t;
+        }
+        return index;
+    }
+
+    //test
+    public static void main(String[] args)
+    {
+        String[] a = StdIn.readStrings();
+        CompositeSort.sort(a, s -> s.length(), s -> s.charAt(0));
+        for (int i = 0; i < a.length; i++)
+            StdOut.print(a[i] + " ");
+        StdOut.println();
+    }
+}
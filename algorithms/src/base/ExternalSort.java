@@ -0,0 +1,249 @@
+//ExternalSort.java
+//Description: external mergesort, for inputs that are larger than the heap
+//   1) read the whitespace separated tokens (like StdIn.readString()) until the memory budget is used,
+//      sort them in memory with Quick and write them to a temporary run file, one token per line
+//   2) k-way merge the run files: a priority queue holds the current head of every run,
+//      take the smallest, write it and refill from the run it came from
+//   3) with more runs than MAX_FAN_IN, merge groups of runs into bigger runs first
+//
+//Performance:
+//   * every token is read and written ~2 + log_{MAX_FAN_IN}(runs) times, which is usually just twice
+//   * the merge does ~NlgR compares for R runs, and needs one read buffer per run
+//
+// Execution: java ExternalSort input.txt output.txt [memory budget in MB]
+//---------------------------------------------
+package base;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Scanner;
+import java.util.regex.Pattern;
+
+public class ExternalSort
+{
+    //same encoding and token separator as StdIn
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\p{javaWhitespace}+");
+
+    public static final long DEFAULT_MEMORY = 64L << 20;   //bytes of tokens sorted in memory at a time
+    public static final int DEFAULT_BUFFER = 1 << 16;      //bytes of buffer per run file
+    public static final int MAX_FAN_IN = 128;              //most runs merged at once (open files)
+
+    //rough heap cost of a String of length n: header, fields, char array
+    private static final int STRING_OVERHEAD = 56;
+
+    private final long memory;
+    private final int bufferSize;
+    private final File tmpDir;
+
+    public ExternalSort()
+    {
+        this(DEFAULT_MEMORY, DEFAULT_BUFFER, null);
+    }
+
+    //memory is the budget in bytes for one in-memory run, bufferSize the I/O buffer of each run file,
+    //tmpDir where the runs are spilled (null is the system default)
+    public ExternalSort(long memory, int bufferSize, File tmpDir)
+    {
+        if (memory <= 0) throw new IllegalArgumentException("memory budget must be positive");
+        if (bufferSize <= 0) throw new IllegalArgumentException("buffer size must be positive");
+        this.memory = memory;
+        this.bufferSize = bufferSize;
+        this.tmpDir = tmpDir;
+    }
+
+    public void sort(File in, File out) throws IOException
+    {
+        InputStream is = new FileInputStream(in);
+        try{
+            OutputStream os = new FileOutputStream(out);
+            try{
+                sort(is, os);
+            } finally{
+                os.close();
+            }
+        } finally{
+            is.close();
+        }
+    }
+
+    //sort the tokens of in, writing them to out one per line
+    public void sort(InputStream in, OutputStream out) throws IOException
+    {
+        //every run file made, also the ones of an unfinished merge pass: all are deleted at the end,
+        //whether the sort finishes or fails
+        List<File> created = new ArrayList<File>();
+        List<File> runs = new ArrayList<File>();
+        try{
+            Scanner scanner = new Scanner(new InputStreamReader(in, UTF8));
+            scanner.useLocale(Locale.US);
+            scanner.useDelimiter(WHITESPACE_PATTERN);
+            while (scanner.hasNext())
+                runs.add(writeRun(readRun(scanner), created));
+            if (scanner.ioException() != null)
+                throw scanner.ioException();
+
+            //reduce the number of runs until they can all be merged at once
+            while (runs.size() > MAX_FAN_IN){
+                List<File> merged = new ArrayList<File>();
+                for (int i = 0; i < runs.size(); i += MAX_FAN_IN){
+                    List<File> group = runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size()));
+                    File run = newRun(created);
+                    merged.add(run);
+                    Writer w = writer(new FileOutputStream(run));
+                    try{
+                        merge(group, w);
+                    } finally{
+                        w.close();
+                    }
+                    delete(group);  //free the disk space now, not at the end
+                }
+                runs = merged;
+            }
+
+            Writer w = writer(out);
+            merge(runs, w);
+            w.flush();
+        } finally{
+            delete(created);
+        }
+    }
+
+    //read tokens until the memory budget is used, and sort them
+    private String[] readRun(Scanner scanner)
+    {
+        List<String> run = new ArrayList<String>();
+        long used = 0;
+        while (used < memory && scanner.hasNext()){
+            String s = scanner.next();
+            run.add(s);
+            used += STRING_OVERHEAD + 2L * s.length();
+        }
+
+        String[] a = run.toArray(new String[run.size()]);
+        Quick.sort(a, Quick.Partition.THREE_WAY);
+        return a;
+    }
+
+    private File writeRun(String[] a, List<File> created) throws IOException
+    {
+        File run = newRun(created);
+        Writer w = writer(new FileOutputStream(run));
+        try{
+            for (int i = 0; i < a.length; i++){
+                w.write(a[i]);
+                w.write('\n');
+            }
+        } finally{
+            w.close();
+        }
+        return run;
+    }
+
+    //k-way merge of the sorted run files into w
+    private void merge(List<File> files, Writer w) throws IOException
+    {
+        //MaxPQ with the reverse order is a min priority queue;
+        //ties go to the earlier run, so equal tokens keep their input order
+        MaxPQ<Run> pq = new MaxPQ<Run>(files.size(), new Comparator<Run>() {
+            public int compare(Run v, Run w) {
+                int cmp = w.head.compareTo(v.head);
+                if (cmp != 0) return cmp;
+                return w.index - v.index;
+            }
+        });
+
+        List<Run> runs = new ArrayList<Run>();
+        try{
+            for (int i = 0; i < files.size(); i++){
+                Run r = new Run(i, reader(files.get(i)));
+                runs.add(r);
+                if (r.advance())
+                    pq.insert(r);
+            }
+
+            while (!pq.isEmpty()){
+                Run r = pq.delMax();
+                w.write(r.head);
+                w.write('\n');
+                if (r.advance())
+                    pq.insert(r);
+            }
+        } finally{
+            for (Run r : runs)
+                r.in.close();
+        }
+    }
+
+    //a run file being merged, with its smallest unmerged token
+    private static class Run
+    {
+        private final int index;
+        private final BufferedReader in;
+        private String head;
+
+        Run(int index, BufferedReader in)
+        {
+            this.index = index;
+            this.in = in;
+        }
+
+        //move to the next token, false at the end of the run
+        boolean advance() throws IOException
+        {
+            head = in.readLine();
+            return head != null;
+        }
+    }
+
+    //a new empty run file, added to created so that it is deleted with the others
+    private File newRun(List<File> created) throws IOException
+    {
+        File run = File.createTempFile("run", ".txt", tmpDir);
+        created.add(run);
+        return run;
+    }
+
+    private BufferedReader reader(File f) throws IOException
+    {
+        Reader r = new InputStreamReader(new FileInputStream(f), UTF8);
+        return new BufferedReader(r, bufferSize);
+    }
+
+    private Writer writer(OutputStream os)
+    {
+        return new BufferedWriter(new OutputStreamWriter(os, UTF8), bufferSize);
+    }
+
+    private static void delete(List<File> files)
+    {
+        for (File f : files)
+            f.delete();
+    }
+
+    //test
+    public static void main(String[] args) throws IOException
+    {
+        long memory = DEFAULT_MEMORY;
+        if (args.length > 2)
+            memory = Long.parseLong(args[2]) << 20;
+
+        ExternalSort sorter = new ExternalSort(memory, DEFAULT_BUFFER, null);
+        sorter.sort(new File(args[0]), new File(args[1]));
+    }
+}
@@ -0,0 +1,188 @@
+//FrozenLongST.java
+//Description: FrozenST for primitive long keys: the Eytzinger layout and branchless search of FrozenST
+//   on a long[], so a search compares longs in place instead of calling compareTo on boxed keys,
+//   and keys[2k], keys[2k+1] are next to each other in memory instead of two pointers away
+//   * the constructor takes the pairs in any order; a key given more than once keeps its last value
+//
+//Performance: get, contains, rank, floor, ceiling are lgN+1 compares; keys() is N;
+//             a build is a primitive sort plus N searches, ~NlgN, without boxing
+//             8 bytes plus a reference and an int per key
+//
+// Execution: java FrozenST 1000000   (the benchmark is in FrozenST)
+//---------------------------------------------
+package base;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+public class FrozenLongST<Value>
+{
+    private final int N;
+    private final long[] keys;    //keys[1..N] in Eytzinger order, keys[0] unused
+    private final Value[] vals;
+    private final int[] rank;     //rank[k] = number of keys < keys[k]
+
+    //the table of keys[i] -> vals[i]
+    public FrozenLongST(long[] keys, Value[] vals)
+    {
+        if(keys.length != vals.length)
+            throw new IllegalArgumentException("keys and vals have different lengths");
+
+        //the distinct keys, sorted as primitives
+        long[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for(int i = 0; i < sorted.length; i++)
+            if(n == 0 || sorted[i] != sorted[n-1])
+                sorted[n++] = sorted[i];
+
+        N = n;
+        this.keys = new long[n + 1];
+        this.vals = (Value[]) new Object[n + 1];
+        rank = new int[n + 1];
+        layout(sorted, 1, 0);
+
+        //every value goes to the place of its key, in the order given, so the last of equal keys wins;
+        //a search per pair instead of a stable sort of the pair numbers, which would need N more ints
+        for(int i = 0; i < keys.length; i++)
+            this.vals[lowerBound(keys[i])] = vals[i];
+    }
+
+    //fill the subtree of k in order from the sorted keys, starting at rank r; return the next rank
+    private int layout(long[] sorted, int k, int r)
+    {
+        if(k > N) return r;
+        r = layout(sorted, 2*k, r);
+        keys[k] = sorted[r];
+        rank[k] = r;
+        return layout(sorted, 2*k + 1, r + 1);
+    }
+
+    //index of the first key >= key, 0 if there is none
+    private int lowerBound(long key)
+    {
+        int k = 1;
+        while(k <= N)
+            k = 2*k + (keys[k] < key ? 1 : 0);   //a conditional move, the JIT makes no branch of it
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    public int size() { return N; }
+
+    public boolean isEmpty() { return N == 0; }
+
+    //return the value associated with the given key, or null
+    public Value get(long key)
+    {
+        int k = lowerBound(key);
+        if(k != 0 && keys[k] == key)
+            return vals[k];
+        return null;
+    }
+
+    public boolean contains(long key)
+    {
+        return get(key) != null;
+    }
+
+    //return the number of keys in the table that are smaller than given key
+    public int rank(long key)
+    {
+        int k = lowerBound(key);
+        return k == 0 ? N : rank[k];
+    }
+
+    //smallest key >= key
+    public long ceiling(long key)
+    {
+        int k = lowerBound(key);
+        if(k == 0) throw new NoSuchElementException("no key >= " + key);
+        return keys[k];
+    }
+
+    //largest key <= key
+    public long floor(long key)
+    {
+        int k = lowerBound(key);
+        if(k != 0 && keys[k] == key)
+            return keys[k];
+        int p = k == 0 ? last() : predecessor(k);
+        if(p == 0) throw new NoSuchElementException("no key <= " + key);
+        return keys[p];
+    }
+
+    public long min()
+    {
+        if(isEmpty()) throw new NoSuchElementException("empty symbol table");
+        return keys[first()];
+    }
+
+    public long max()
+    {
+        if(isEmpty()) throw new NoSuchElementException("empty symbol table");
+        return keys[last()];
+    }
+
+    //index of the smallest key, 0 when empty
+    private int first()
+    {
+        int k = N == 0 ? 0 : 1;
+        while(k != 0 && 2*k <= N) k = 2*k;
+        return k;
+    }
+
+    //index of the largest key, 0 when empty
+    private int last()
+    {
+        int k = N == 0 ? 0 : 1;
+        while(k != 0 && 2*k + 1 <= N) k = 2*k + 1;
+        return k;
+    }
+
+    //index of the key before keys[k] in order, 0 if there is none
+    private int predecessor(int k)
+    {
+        if(2*k <= N){
+            k = 2*k;
+            while(2*k + 1 <= N) k = 2*k + 1;
+            return k;
+        }
+        return k >>> (Integer.numberOfTrailingZeros(k) + 1);
+    }
+
+    //index of the key after keys[k] in order, 0 if there is none
+    private int successor(int k)
+    {
+        if(2*k + 1 <= N){
+            k = 2*k + 1;
+            while(2*k <= N) k = 2*k;
+            return k;
+        }
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    //the keys in ascending order, lazily; the iterator is a PrimitiveIterator.OfLong,
+    //so nextLong() reads them without boxing
+    public Iterable<Long> keys()
+    {
+        return new Iterable<Long>() {
+            public PrimitiveIterator.OfLong iterator()
+            {
+                return new PrimitiveIterator.OfLong() {
+                    private int k = first();
+
+                    public boolean hasNext() { return k != 0; }
+
+                    public long nextLong()
+                    {
+                        if(k == 0) throw new NoSuchElementException();
+                        long key = keys[k];
+                        k = successor(k);
+                        return key;
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,221 @@
+//FrozenST.java
+//Description: an immutable ordered symbol table for read-mostly data, from BinarySearchST.freeze()
+//   * the sorted keys are laid out in Eytzinger (BFS) order: keys[1] is the root of an implicit
+//     complete binary search tree and the children of keys[k] are keys[2k] and keys[2k+1]
+//   * a search walks down from the root, k = 2k + (keys[k] < key), always lgN+1 levels with no early
+//     exit, so the loop has no branch that depends on the keys: the only data-dependent step is which
+//     child, an add; at the end the index of the first key >= key is k with its trailing 1 bits shifted off
+//   * the top levels of the tree are the same few cache lines for every search, and the 2^d
+//     descendants d levels below a key are contiguous, so the hardware prefetcher can fetch ahead
+//     (java has no prefetch instruction); a textbook binary search touches a new line at almost every step
+//   * vals[k] and rank[k] belong to keys[k]; FrozenLongST is the same for long keys without boxing
+//
+//Performance: get, contains, rank, floor, ceiling are lgN+1 compares; min, max are lgN steps; keys() is N.
+//             A freeze is ~N. About 3 references and an int per key
+//
+// Execution: java FrozenST 1000000   (lookup benchmark against BinarySearchST.rank)
+//---------------------------------------------
+package base;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class FrozenST<Key extends Comparable<Key>, Value>
+{
+    private final int N;
+    private final Key[] keys;     //keys[1..N] in Eytzinger order, keys[0] unused
+    private final Value[] vals;
+    private final int[] rank;     //rank[k] = number of keys < keys[k]
+
+    //the table of keys[0..n-1] -> vals[0..n-1], keys in ascending order without duplicates
+    FrozenST(Key[] sortedKeys, Value[] sortedVals, int n)
+    {
+        N = n;
+        keys = (Key[]) new Comparable[n + 1];
+        vals = (Value[]) new Object[n + 1];
+        rank = new int[n + 1];
+        layout(sortedKeys, sortedVals, 1, 0);
+    }
+
+    //fill the subtree of k in order from the sorted arrays, starting at rank r; return the next rank
+    private int layout(Key[] sortedKeys, Value[] sortedVals, int k, int r)
+    {
+        if(k > N) return r;
+        r = layout(sortedKeys, sortedVals, 2*k, r);
+        keys[k] = sortedKeys[r];
+        vals[k] = sortedVals[r];
+        rank[k] = r;
+        return layout(sortedKeys, sortedVals, 2*k + 1, r + 1);
+    }
+
+    //index of the first key >= key, 0 if there is none
+    private int lowerBound(Key key)
+    {
+        int k = 1;
+        while(k <= N)
+            k = 2*k + (keys[k].compareTo(key) >>> 31);   //+1 if keys[k] < key
+        //the path went right (1 bits) after the last left turn: undo those and the left turn
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    public int size() { return N; }
+
+    public boolean isEmpty() { return N == 0; }
+
+    //return the value associated with the given key, or null
+    public Value get(Key key)
+    {
+        int k = lowerBound(key);
+        if(k != 0 && keys[k].compareTo(key) == 0)
+            return vals[k];
+        return null;
+    }
+
+    public boolean contains(Key key)
+    {
+        return get(key) != null;
+    }
+
+    //return the number of keys in the table that are smaller than given key
+    public int rank(Key key)
+    {
+        int k = lowerBound(key);
+        return k == 0 ? N : rank[k];
+    }
+
+    //smallest key >= key, null if there is none
+    public Key ceiling(Key key)
+    {
+        return keys[lowerBound(key)];
+    }
+
+    //largest key <= key, null if there is none
+    public Key floor(Key key)
+    {
+        int k = lowerBound(key);
+        if(k != 0 && keys[k].compareTo(key) == 0)
+            return keys[k];
+        int p = k == 0 ? last() : predecessor(k);
+        return keys[p];
+    }
+
+    public Key min()
+    {
+        if(isEmpty()) throw new NoSuchElementException("empty symbol table");
+        return keys[first()];
+    }
+
+    public Key max()
+    {
+        if(isEmpty()) throw new NoSuchElementException("empty symbol table");
+        return keys[last()];
+    }
+
+    //index of the smallest key, 0 when empty
+    private int first()
+    {
+        int k = N == 0 ? 0 : 1;
+        while(k != 0 && 2*k <= N) k = 2*k;
+        return k;
+    }
+
+    //index of the largest key, 0 when empty
+    private int last()
+    {
+        int k = N == 0 ? 0 : 1;
+        while(k != 0 && 2*k + 1 <= N) k = 2*k + 1;
+        return k;
+    }
+
+    //index of the key before keys[k] in order, 0 if there is none
+    private int predecessor(int k)
+    {
+        if(2*k <= N){
+            k = 2*k;
+            while(2*k + 1 <= N) k = 2*k + 1;
+            return k;
+        }
+        //climb while k is a left child; the parent of the last right child is the predecessor
+        return k >>> (Integer.numberOfTrailingZeros(k) + 1);
+    }
+
+    //index of the key after keys[k] in order, 0 if there is none
+    private int successor(int k)
+    {
+        if(2*k + 1 <= N){
+            k = 2*k + 1;
+            while(2*k <= N) k = 2*k;
+            return k;
+        }
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    //the keys in ascending order, lazily
+    public Iterable<Key> keys()
+    {
+        return new Iterable<Key>() {
+            public Iterator<Key> iterator()
+            {
+                return new Iterator<Key>() {
+                    private int k = first();
+
+                    public boolean hasNext() { return k != 0; }
+
+                    public Key next()
+                    {
+                        if(k == 0) throw new NoSuchElementException();
+                        Key key = keys[k];
+                        k = successor(k);
+                        return key;
+                    }
+
+                    public void remove() { throw new UnsupportedOperationException(); }
+                };
+            }
+        };
+    }
+
+    //lookup benchmark: N int keys, then random lookups, half of them misses
+    public static void main(String[] args)
+    {
+        int n = Integer.parseInt(args[0]);
+        Integer[] a = new Integer[n];
+        long[] la = new long[n];
+        Integer[] vals = new Integer[n];
+        for(int i = 0; i < n; i++){
+            a[i] = 2 * i;
+            la[i] = 2 * i;
+            vals[i] = i;
+        }
+        BinarySearchST<Integer, Integer> st = new BinarySearchST<Integer, Integer>(a, vals);
+        FrozenST<Integer, Integer> frozen = st.freeze();
+        FrozenLongST<Integer> frozenLong = new FrozenLongST<Integer>(la, vals);
+
+        Integer[] lookups = new Integer[n];
+        long[] longLookups = new long[n];
+        for(int i = 0; i < n; i++){
+            lookups[i] = StdRandom.uniform(2 * n);
+            longLookups[i] = lookups[i];
+        }
+
+        //enough passes over the lookups for ~10M ranks per measurement
+        int passes = Math.max(1, 10000000 / n);
+        for(int round = 0; round < 5; round++){
+            long sum0 = 0, sum1 = 0, sum2 = 0;
+            long t0 = System.nanoTime();
+            for(int p = 0; p < passes; p++)
+                for(Integer key : lookups) sum0 += st.rank(key);
+            long t1 = System.nanoTime();
+            for(int p = 0; p < passes; p++)
+                for(Integer key : lookups) sum1 += frozen.rank(key);
+            long t2 = System.nanoTime();
+            for(int p = 0; p < passes; p++)
+                for(long key : longLookups) sum2 += frozenLong.rank(key);
+            long t3 = System.nanoTime();
+            if(sum0 != sum1 || sum0 != sum2) throw new IllegalStateException("ranks differ");
+            double count = (double) passes * n;
+            StdOut.printf("ns/rank  BinarySearchST %6.1f   FrozenST %6.1f   FrozenLongST %6.1f\n",
+                          (t1 - t0) / count, (t2 - t1) / count, (t3 - t2) / count);
+        }
+    }
+}
@@ -0,0 +1,435 @@
+/*
+Heap.java: wenlong
+Description: heap sort, also the fallback of Quick when its partitioning goes too deep
+Assume: 1) total order (like v.compareTo(w))
+        2) callback = reference to executable code
+              * client passes array of objects to sort() function
+              * The sort() function calls back object's compareTo() method as needed
+                   ---user-defined comparable types implement the comparable interface
+
+Performance: at most 2NlgN compares and NlgN exchanges, in place, not stable
+---------------------------------------------------------------------------------------------------
+*/
+package base;
+
+import java.lang.Comparable;
+import java.util.Comparator;
+//this sorting logic must be in same class whose objects are being sorted,
+//this is called natural ordering of objects
+
+/*
+  // Comparable interface built in Java
+  public interface Comparable<Item>
+  {
+     public int compareTo(Item that);
+  }
+*/
+
+class Heap
+{
+    private Heap() { }
+
+    public static void sort(Comparable[] a)
+    {
+        sort(a, 0, a.length-1);
+    }
+
+    //sort the subarray a[lo..hi], used by Quick when the partitioning goes too deep
+    public static void sort(Comparable[] a, int lo, int hi)
+    {
+        int N  = hi - lo + 1;
+        for(int k = N/2; k >= 1; k--)
+            sink(a, lo, k, N);
+
+        while (N > 1){
+            swap(a, lo, 1, N--);
+            sink(a, lo, 1, N);
+        }
+                
+    }
+
+    //sort using an alternate order
+    public static <T> void sort(T[] a, Comparator<? super T> c)
+    {
+        int N  = a.length;
+        for(int k = N/2; k >= 1; k--)
+            sink(a, c, k, N);
+
+        while (N > 1){
+            swap(a, 0, 1, N--);
+            sink(a, c, 1, N);
+        }
+    }
+
+    private static <T> void sink(T[] a, Comparator<? super T> c, int k, int N)
+    {
+        while( 2*k <= N ){
+            int j = 2*k;
+            if(j < N && less(c, a[j-1], a[j]))
+                j++;
+            if(!less(c, a[k-1], a[j-1]))
+                break;
+            swap(a, 0, k, j);
+            k = j;
+        }
+    }
+
+    private static void sink(Comparable[] a, int lo, int k, int N)
+    {
+        while( 2*k <= N ){ //a node's key smaller than one of the node's children's keys
+            int j = 2*k;
+            if(j < N && less(a, lo, j, j+1))
+                j++; //get the larger child
+            
+            if(!less(a, lo, k, j)) //whether the child needs to be promoted
+                break;
+
+            swap(a, lo, k, j);
+            k = j;
+        }
+    }
+
+    //heap indices are 1-based, heap node i of the subarray starting at lo is stored in a[lo+i-1]
+    private static boolean less(Comparable[] a, int lo, int i, int j)
+    {
+        return less(a[lo+i-1], a[lo+j-1]);
+    }
+
+    private static boolean less(Comparable v, Comparable w )
+    {
+        SortStats.compare();
+        return v.compareTo(w) < 0;
+    }
+
+    private static <T> boolean less(Comparator<? super T> c, T v, T w)
+    {
+        SortStats.compare();
+        return c.compare(v, w) < 0;
+    }
+
+    private static void swap(Object[] a, int lo, int i, int j)
+    {
+        SortStats.swap();
+        Object temp = a[lo+i-1];
+        a[lo+i-1] = a[lo+j-1];
+        a[lo+j-1] = temp;
+    }
+
+    //Bottom-up heapsort (Floyd), for primitive keys, on a d-ary heap with 0-based indices:
+    // * after moving the max out, the hole at the root goes straight down to a leaf along the
+    //   largest children, without comparing against the item being sunk (that compare is nearly
+    //   always "go on"); that item then moves up from the leaf, which is usually a level or two.
+    //   ~NlgN compares instead of ~2NlgN for d = 2
+    // * d = 4 halves the height of the heap, and the 4 children of a node are next to each other
+    //   (d*i+1..d*i+4), usually in one cache line, so a sink touches half as many lines
+    // * picking the largest child is a select (?:) on the values, that the JIT can compile without branches
+    public static void sortBottomUp(int[] a)
+    {
+        sortBottomUp(a, 2);
+    }
+
+    public static void sortBottomUp(int[] a, int d)
+    {
+        if(d < 2) throw new IllegalArgumentException("a heap needs at least 2 children per node");
+        int N = a.length;
+        if(N < 2)
+            return;
+        for(int k = (N-2)/d; k >= 0; k--)
+            sinkBottomUp(a, k, N, d);
+
+        for(int n = N-1; n > 0; n--){
+            int v = a[n];
+            a[n] = a[0];
+            a[0] = v;
+            sinkBottomUp(a, 0, n, d);
+        }
+    }
+
+    //sink a[k] in the d-ary heap a[0..n-1]
+    private static void sinkBottomUp(int[] a, int k, int n, int d)
+    {
+        int v = a[k];
+        int last = n < 2 ? -1 : (n-2)/d;   //last node with a child
+
+        //move the hole down to a leaf, always taking the largest child
+        int i = k;
+        while(i <= last){
+            int c = d*i + 1;
+            int max = c;
+            if(d == 2)   //the JIT does much better with the two children spelled out than with the loop
+                max = c+1 < n && less(a[c], a[c+1]) ? c+1 : c;
+            else{
+                int end = Math.min(c + d, n);
+                for(int j = c+1; j < end; j++)
+                    max = less(a[max], a[j]) ? j : max;
+            }
+            a[i] = a[max];
+            i = max;
+        }
+
+        //then move v up from the leaf to its place
+        while(i > k){
+            int parent = (i-1)/d;
+            if(!less(a[parent], v))
+                break;
+            a[i] = a[parent];
+            i = parent;
+        }
+        a[i] = v;
+    }
+
+    public static void sortBottomUp(long[] a)
+    {
+        sortBottomUp(a, 2);
+    }
+
+    public static void sortBottomUp(long[] a, int d)
+    {
+        if(d < 2) throw new IllegalArgumentException("a heap needs at least 2 children per node");
+        int N = a.length;
+        if(N < 2)
+            return;
+        for(int k = (N-2)/d; k >= 0; k--)
+            sinkBottomUp(a, k, N, d);
+
+        for(int n = N-1; n > 0; n--){
+            long v = a[n];
+            a[n] = a[0];
+            a[0] = v;
+            sinkBottomUp(a, 0, n, d);
+        }
+    }
+
+    //sink a[k] in the d-ary heap a[0..n-1]
+    private static void sinkBottomUp(long[] a, int k, int n, int d)
+    {
+        long v = a[k];
+        int last = n < 2 ? -1 : (n-2)/d;   //last node with a child
+
+        //move the hole down to a leaf, always taking the largest child
+        int i = k;
+        while(i <= last){
+            int c = d*i + 1;
+            int max = c;
+            if(d == 2)   //the JIT does much better with the two children spelled out than with the loop
+                max = c+1 < n && less(a[c], a[c+1]) ? c+1 : c;
+            else{
+                int end = Math.min(c + d, n);
+                for(int j = c+1; j < end; j++)
+                    max = less(a[max], a[j]) ? j : max;
+            }
+            a[i] = a[max];
+            i = max;
+        }
+
+        //then move v up from the leaf to its place
+        while(i > k){
+            int parent = (i-1)/d;
+            if(!less(a[parent], v))
+                break;
+            a[i] = a[parent];
+            i = parent;
+        }
+        a[i] = v;
+    }
+
+    public static void sortBottomUp(double[] a)
+    {
+        sortBottomUp(a, 2);
+    }
+
+    public static void sortBottomUp(double[] a, int d)
+    {
+        if(d < 2) throw new IllegalArgumentException("a heap needs at least 2 children per node");
+        int N = a.length;
+        if(N < 2)
+            return;
+        for(int k = (N-2)/d; k >= 0; k--)
+            sinkBottomUp(a, k, N, d);
+
+        for(int n = N-1; n > 0; n--){
+            double v = a[n];
+            a[n] = a[0];
+            a[0] = v;
+            sinkBottomUp(a, 0, n, d);
+        }
+    }
+
+    //sink a[k] in the d-ary heap a[0..n-1]
+    private static void sinkBottomUp(double[] a, int k, int n, int d)
+    {
+        double v = a[k];
+        int last = n < 2 ? -1 : (n-2)/d;   //last node with a child
+
+        //move the hole down to a leaf, always taking the largest child
+        int i = k;
+        while(i <= last){
+            int c = d*i + 1;
+            int max = c;
+            if(d == 2)   //the JIT does much better with the two children spelled out than with the loop
+                max = c+1 < n && less(a[c], a[c+1]) ? c+1 : c;
+            else{
+                int end = Math.min(c + d, n);
+                for(int j = c+1; j < end; j++)
+                    max = less(a[max], a[j]) ? j : max;
+            }
+            a[i] = a[max];
+            i = max;
+        }
+
+        //then move v up from the leaf to its place
+        while(i > k){
+            int parent = (i-1)/d;
+            if(!less(a[parent], v))
+                break;
+            a[i] = a[parent];
+            i = parent;
+        }
+        a[i] = v;
+    }
+
+    //primitive keys
+    public static void sort(int[] a)
+    {
+        int N  = a.length;
+        for(int k = N/2; k >= 1; k--)
+            sink(a, k, N);
+
+        while (N > 1){
+            swap(a, 1, N--);
+            sink(a, 1, N);
+        }
+    }
+
+    private static void sink(int[] a, int k, int N)
+    {
+        while( 2*k <= N ){
+            int j = 2*k;
+            if(j < N && less(a, j, j+1))
+                j++;
+            if(!less(a, k, j))
+                break;
+            swap(a, k, j);
+            k = j;
+        }
+    }
+
+    public static void sort(long[] a)
+    {
+        int N  = a.length;
+        for(int k = N/2; k >= 1; k--)
+            sink(a, k, N);
+
+        while (N > 1){
+            swap(a, 1, N--);
+            sink(a, 1, N);
+        }
+    }
+
+    private static void sink(long[] a, int k, int N)
+    {
+        while( 2*k <= N ){
+            int j = 2*k;
+            if(j < N && less(a, j, j+1))
+                j++;
+            if(!less(a, k, j))
+                break;
+            swap(a, k, j);
+            k = j;
+        }
+    }
+
+    public static void sort(double[] a)
+    {
+        int N  = a.length;
+        for(int k = N/2; k >= 1; k--)
+            sink(a, k, N);
+
+        while (N > 1){
+            swap(a, 1, N--);
+            sink(a, 1, N);
+        }
+    }
+
+    private static void sink(double[] a, int k, int N)
+    {
+        while( 2*k <= N ){
+            int j = 2*k;
+            if(j < N && less(a, j, j+1))
+                j++;
+            if(!less(a, k, j))
+                break;
+            swap(a, k, j);
+            k = j;
+        }
+    }
+
+    private static boolean less(int[] a, int i, int j)
+    {
+        return less(a[i-1], a[j-1]);
+    }
+
+    private static boolean less(long[] a, int i, int j)
+    {
+        return less(a[i-1], a[j-1]);
+    }
+
+    private static boolean less(double[] a, int i, int j)
+    {
+        return less(a[i-1], a[j-1]);
+    }
+
+    private static void swap(int[] a, int i, int j)
+    {
+        int temp = a[i-1];
+        a[i-1] = a[j-1];
+        a[j-1] = temp;
+    }
+
+    private static void swap(long[] a, int i, int j)
+    {
+        long temp = a[i-1];
+        a[i-1] = a[j-1];
+        a[j-1] = temp;
+    }
+
+    private static void swap(double[] a, int i, int j)
+    {
+        double temp = a[i-1];
+        a[i-1] = a[j-1];
+        a[j-1] = temp;
+    }
+
+    private static boolean less(int v, int w)
+    {
+        return v < w;
+    }
+
+    private static boolean less(long v, long w)
+    {
+        return v < w;
+    }
+
+    //Double.compare is the order of Double.compareTo: -0.0 < 0.0 and NaN is the largest
+    private static boolean less(double v, double w)
+    {
+        return Double.compare(v, w) < 0;
+    }
+
+    public static void display(Comparable[] a)
+    {
+        for(int i=0; i<a.length; i++)
+            StdOut.print(a[i] + " ");
+        StdOut.println();
+    }
+
+    //test
+    public static void main(String[] args)
+    {
+        String[] pq = StdIn.readStrings();
+        display(pq);
+        
+        Heap.sort(pq);
+        display(pq);
+    }
+}
@@ -23,6 +23,22 @@ public class Insertion
         assert isSorted(a, c);
         
     }
+    //sort a[lo..hi] using the comparator
+    public static void sort(Object[] a, int lo, int hi, Comparator c)
+    {
+        for (int i = lo + 1; i <= hi; i++)
+            for (int j = i; j > lo && less(c, a[j], a[j-1]); j--)
+                swap(a, j, j-1);
+    }
+
+    //sort a[lo..hi] in natural order, the small-subarray cutoff of Quick and Merge
+    public static void sort(Comparable[] a, int lo, int hi)
+    {
+        for (int i = lo + 1; i <= hi; i++)
+            for (int j = i; j > lo && less(a[j], a[j-1]); j--)
+                swap(a, j, j-1);
+    }
+
     /*
     public static void sort(Object[] a) 
     {
@@ -47,16 +63,86 @@ public class Insertion
 
     public static boolean less(Comparator c, Object v, Object w)
     {
+        SortStats.compare();
         return c.compare(v, w) < 0;
     }
 
+    private static boolean less(Comparable v, Comparable w)
+    {
+        SortStats.compare();
+        return v.compareTo(w) < 0;
+    }
+
     public static void swap(Object[] a, int i, int j)
     {
+        SortStats.swap();
         Object temp = a[i];
         a[i] = a[j];
         a[j] = temp;
     }
 
+    //primitive keys: stop the inner loop as soon as a[j] is in place
+    public static void sort(int[] a)
+    {
+        int N = a.length;
+        for (int i = 1; i < N; i++)
+            for (int j = i; j > 0 && less(a[j], a[j-1]); j--)
+                swap(a, j, j-1);
+    }
+
+    public static void sort(long[] a)
+    {
+        int N = a.length;
+        for (int i = 1; i < N; i++)
+            for (int j = i; j > 0 && less(a[j], a[j-1]); j--)
+                swap(a, j, j-1);
+    }
+
+    public static void sort(double[] a)
+    {
+        int N = a.length;
+        for (int i = 1; i < N; i++)
+            for (int j = i; j > 0 && less(a[j], a[j-1]); j--)
+                swap(a, j, j-1);
+    }
+
+    private static void swap(int[] a, int i, int j)
+    {
+        int temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static void swap(long[] a, int i, int j)
+    {
+        long temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static void swap(double[] a, int i, int j)
+    {
+        double temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static boolean less(int v, int w)
+    {
+        return v < w;
+    }
+
+    private static boolean less(long v, long w)
+    {
+        return v < w;
+    }
+
+    //Double.compare is the order of Double.compareTo: -0.0 < 0.0 and NaN is the largest
+    private static boolean less(double v, double w)
+    {
+        return Double.compare(v, w) < 0;
+    }
+
     public static boolean isSorted( Object[] a, Comparator c)
     {
         for (int i = 1; i < a.length; i++)
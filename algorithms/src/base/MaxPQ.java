@@ -115,6 +115,18 @@ public class MaxPQ<Key> implements Iterable<Key>
         assert isMaxHeap();
     }
 
+    //replace the largest key with x and return it, one sink instead of delMax() and insert(x)
+    public Key replaceMax(Key x){
+        if(isEmpty()) throw new NoSuchElementException("Priority queue underflow");
+
+        Key max = pq[1];
+        pq[1] = x;
+        sink(1);
+
+        assert isMaxHeap();
+        return max;
+    }
+
     public Key delMax(){
         if(isEmpty()) throw new NoSuchElementException("Priority queue underflow");
 
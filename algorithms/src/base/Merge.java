@@ -4,24 +4,46 @@
 //Performance:
 //at most NlgN compares and 6NlgN (2N for the copy, 2N for the move back, and at most 2N for compares) array accesses 
 //
+//parallelSort: same compares, with span ~ lg^3 N, since the merges are split with binary search too
+//sortInPlace: stable with O(1) extra space (or a small buffer), ~NlgN compares and ~Nlg^2 N moves
 //---------------------------------------------------------------------
 package base;
 
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
 public class Merge
 {
+    //subarrays smaller than this are sorted/merged sequentially by the parallel sort
+    public static final int PARALLEL_THRESHOLD = 1 << 13;
+    //primitive subarrays this small are sorted by a sorting network
+    private static final int NETWORK_CUTOFF = SortingNetwork.MAX;
+
     // use static when we want to provide class level access to a method,
     // like the method should be callable without an instance of the class
     public static void sort(Comparable[] a)
     {
         Comparable[] aux = new Comparable[a.length];
+        SortStats.allocate((long) SortStats.REFERENCE_BYTES * a.length);
         sort(a, aux, 0, a.length-1);
         assert isSorted(a);
         
     }
 
+    //aux[] must be at least as long as a[], pass the same aux to reuse it between calls
+    public static void sort(Comparable[] a, Comparable[] aux)
+    {
+        if (aux.length < a.length) throw new IllegalArgumentException("aux is shorter than a");
+        sort(a, aux, 0, a.length-1);
+        assert isSorted(a);
+    }
+
     // recursive
     //mergesort a[io..hi] using auxiliary array aux[io..hi]
-    private static void sort(Comparable[] a, Comparable[] aux, int lo, int hi)
+    public static void sort(Comparable[] a, Comparable[] aux, int lo, int hi)
     {
         if (hi <= lo) return;
         //TODO: Mergesort has too much overhead for tiny subarrays
@@ -33,8 +55,10 @@ public class Merge
         int mid = lo + (hi - lo) / 2;
         //StdOut.println(lo + " " + mid + " " + hi);
         
+        SortStats.enter();
         sort(a, aux, lo, mid);
         sort(a, aux, mid+1, hi);
+        SortStats.exit();
         //stop if already sorted
         // is biggest item in first half <= smallest item in second half
         if(!less(a[mid+1], a[mid]))
@@ -62,6 +86,7 @@ public class Merge
         //switch the role of the input and auxiliary array
         for (int k = lo; k <= hi; k++)
             aux[k] = a[k];
+        SortStats.move(2 * (hi - lo + 1));
 
         // merge back to a[]
         int i = lo, j= mid+1;
@@ -80,9 +105,937 @@ public class Merge
         
     }
 
+    //sort using an alternate order, stable like sort(Comparable[])
+    public static <T> void sort(T[] a, Comparator<? super T> c)
+    {
+        Object[] aux = new Object[a.length];
+        SortStats.allocate((long) SortStats.REFERENCE_BYTES * a.length);
+        sort(a, aux, 0, a.length-1, c);
+    }
+
+    private static void sort(Object[] a, Object[] aux, int lo, int hi, Comparator c)
+    {
+        if (hi <= lo) return;
+        int mid = lo + (hi - lo) / 2;
+        SortStats.enter();
+        sort(a, aux, lo, mid, c);
+        sort(a, aux, mid+1, hi, c);
+        SortStats.exit();
+        if(!less(c, a[mid+1], a[mid]))
+            return;
+
+        for (int k = lo; k <= hi; k++)
+            aux[k] = a[k];
+        SortStats.move(2 * (hi - lo + 1));
+        int i = lo, j = mid+1;
+        for (int k = lo; k <= hi; k++){
+            if (i > mid)
+                a[k] = aux[j++];
+            else if (j > hi)
+                a[k] = aux[i++];
+            else if (less(c, aux[j], aux[i]))
+                a[k] = aux[j++];
+            else
+                a[k] = aux[i++];
+        }
+    }
+
+    private static boolean less(Comparator c, Object v, Object w)
+    {
+        SortStats.compare();
+        return c.compare(v, w) < 0;
+    }
+
+    //sort by an int key, which is extracted once per item instead of twice per compare
+    public static <T> void sort(T[] a, ToIntFunction<? super T> key)
+    {
+        sortByKey(a, key, Merge::sort);
+    }
+
+    //the key-extractor sorts of Merge, Quick and Sorts: (key, index) pairs are packed in a long[],
+    //key in the high half, sorted as primitives by longSort, then a[] is permuted.
+    //the index breaks ties, so this is stable whatever longSort is
+    static <T> void sortByKey(T[] a, ToIntFunction<? super T> key, Consumer<long[]> longSort)
+    {
+        int N = a.length;
+        long[] keys = new long[N];
+        for (int i = 0; i < N; i++)
+            keys[i] = ((long) key.applyAsInt(a[i]) << 32) | i;
+        longSort.accept(keys);
+
+        T[] copy = a.clone();
+        SortStats.allocate(8L * N + (long) SortStats.REFERENCE_BYTES * N);
+        for (int i = 0; i < N; i++)
+            a[i] = copy[(int) keys[i]];
+    }
+
+    //Parallel mergesort: the two halves are sorted as fork/join subtasks, and the merge itself
+    //is split recursively too, so the final merges (which touch all N items) are not sequential.
+    //stable, like sort(a); needs the same N extra space for aux
+    public static void parallelSort(Comparable[] a)
+    {
+        parallelSort(a, PARALLEL_THRESHOLD);
+    }
+
+    public static void parallelSort(Comparable[] a, int threshold)
+    {
+        parallelSort(a, threshold, ForkJoinPool.commonPool());
+    }
+
+    //sort a[] in the given pool, subarrays of at most threshold items are sorted sequentially
+    public static void parallelSort(Comparable[] a, int threshold, ForkJoinPool pool)
+    {
+        if (threshold < 1) throw new IllegalArgumentException("threshold must be positive");
+        if (a.length <= threshold){
+            sort(a);
+            return;
+        }
+
+        Comparable[] aux = new Comparable[a.length];
+        SortStats.allocate((long) SortStats.REFERENCE_BYTES * a.length);
+        pool.invoke(new SortTask(a, aux, 0, a.length-1, threshold));
+        assert isSorted(a);
+    }
+
+    //sort a[lo..hi], aux[lo..hi] is the scratch space of this subtask
+    private static class SortTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Comparable[] a, aux;
+        private final int lo, hi, threshold;
+
+        SortTask(Comparable[] a, Comparable[] aux, int lo, int hi, int threshold)
+        {
+            this.a = a;
+            this.aux = aux;
+            this.lo = lo;
+            this.hi = hi;
+            this.threshold = threshold;
+        }
+
+        protected void compute()
+        {
+            if (hi - lo < threshold){
+                sort(a, aux, lo, hi);
+                return;
+            }
+
+            int mid = lo + (hi - lo) / 2;
+            invokeAll(new SortTask(a, aux, lo, mid, threshold),
+                      new SortTask(a, aux, mid+1, hi, threshold));
+            //already in order, same shortcut as the sequential sort
+            if (!less(a[mid+1], a[mid]))
+                return;
+
+            System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+            new MergeTask(aux, lo, mid, mid+1, hi, a, lo, threshold).compute();
+        }
+    }
+
+    //merge the sorted runs src[lo1..hi1] and src[lo2..hi2] (lo1..hi1 comes first in the input) into dst[k..]
+    private static class MergeTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Comparable[] src, dst;
+        private final int lo1, hi1, lo2, hi2, k, threshold;
+
+        MergeTask(Comparable[] src, int lo1, int hi1, int lo2, int hi2, Comparable[] dst, int k, int threshold)
+        {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.k = k;
+            this.threshold = threshold;
+        }
+
+        protected void compute()
+        {
+            int n1 = hi1 - lo1 + 1, n2 = hi2 - lo2 + 1;
+            if (n1 + n2 <= threshold || n1 == 0 || n2 == 0){
+                merge(src, lo1, hi1, lo2, hi2, dst, k);
+                return;
+            }
+
+            //split the larger run at its middle item v, binary search the split point of v in the
+            //other run, then v lands at its final place and the two sides are merged independently.
+            //for stability, equal keys of the first run must stay before those of the second
+            int m1, m2, pos;
+            if (n1 >= n2){
+                m1 = lo1 + (hi1 - lo1) / 2;
+                m2 = lowerBound(src, lo2, hi2, src[m1]);   // second-run keys < v go left
+                pos = k + (m1 - lo1) + (m2 - lo2);
+                dst[pos] = src[m1];
+                invokeAll(new MergeTask(src, lo1, m1-1, lo2, m2-1, dst, k, threshold),
+                          new MergeTask(src, m1+1, hi1, m2, hi2, dst, pos+1, threshold));
+            }
+            else{
+                m2 = lo2 + (hi2 - lo2) / 2;
+                m1 = upperBound(src, lo1, hi1, src[m2]);   // first-run keys <= v go left
+                pos = k + (m1 - lo1) + (m2 - lo2);
+                dst[pos] = src[m2];
+                invokeAll(new MergeTask(src, lo1, m1-1, lo2, m2-1, dst, k, threshold),
+                          new MergeTask(src, m1, hi1, m2+1, hi2, dst, pos+1, threshold));
+            }
+        }
+    }
+
+    //sequential stable merge of src[lo1..hi1] and src[lo2..hi2] into dst[k..]
+    private static void merge(Comparable[] src, int lo1, int hi1, int lo2, int hi2, Comparable[] dst, int k)
+    {
+        int i = lo1, j = lo2;
+        while (i <= hi1 && j <= hi2){
+            if (less(src[j], src[i])) dst[k++] = src[j++];
+            else                      dst[k++] = src[i++];
+        }
+        while (i <= hi1) dst[k++] = src[i++];
+        while (j <= hi2) dst[k++] = src[j++];
+    }
+
+    //first index in a[lo..hi] whose key is >= v, or hi+1
+    private static int lowerBound(Comparable[] a, int lo, int hi, Comparable v)
+    {
+        hi++;
+        while (lo < hi){
+            int m = lo + (hi - lo) / 2;
+            if (less(a[m], v)) lo = m + 1;
+            else               hi = m;
+        }
+        return lo;
+    }
+
+    //first index in a[lo..hi] whose key is > v, or hi+1
+    private static int upperBound(Comparable[] a, int lo, int hi, Comparable v)
+    {
+        hi++;
+        while (lo < hi){
+            int m = lo + (hi - lo) / 2;
+            if (less(v, a[m])) hi = m;
+            else               lo = m + 1;
+        }
+        return lo;
+    }
+
+    //Bottom-up mergesort: merge subarrays of width 1, 2, 4, ... with no recursion.
+    //aux[] must be at least as long as a[], pass the same aux to reuse it between calls
+    public static void sortBU(Comparable[] a, Comparable[] aux)
+    {
+        if (aux.length < a.length) throw new IllegalArgumentException("aux is shorter than a");
+        int N = a.length;
+        for (int sz = 1; sz < N; sz = sz+sz)
+            for (int lo = 0; lo < N-sz; lo += sz+sz){
+                int mid = lo+sz-1, hi = Math.min(lo+sz+sz-1, N-1);
+                if (less(a[mid+1], a[mid]))
+                    merge(a, aux, lo, mid, hi);
+            }
+        assert isSorted(a);
+    }
+
+    //Natural mergesort (TimSort style):
+    // * scan for runs that are already ascending or strictly descending (reversed in place),
+    //   runs shorter than minRun are extended with insertion sort
+    // * keep the runs on a stack whose lengths grow like Fibonacci numbers, merging the top
+    //   runs when that would break, so merges stay balanced and the stack stays small
+    // * a merge only copies the shorter run to scratch, and switches to galloping (exponential
+    //   search + block copy) when one run keeps winning
+    //Performance: ~N compares on sorted or reversed input, at most ~NlgN; stable.
+    public static void sortNatural(Comparable[] a)
+    {
+        sortNatural(a, new Comparable[a.length/2 + 1]);
+        SortStats.allocate((long) SortStats.REFERENCE_BYTES * (a.length/2 + 1));
+    }
+
+    //scratch[] must hold at least a.length/2 + 1 items, pass the same scratch to reuse it between calls
+    public static void sortNatural(Comparable[] a, Comparable[] scratch)
+    {
+        if (scratch.length < a.length/2 + 1) throw new IllegalArgumentException("scratch is shorter than a.length/2 + 1");
+        int N = a.length;
+        if (N < 2) return;
+
+        NaturalMerge runs = new NaturalMerge(a, scratch);
+        int minRun = minRunLength(N);
+        int lo = 0;
+        while (lo < N){
+            int hi = countRun(a, lo, N);   // a[lo..hi-1] is ascending
+            if (hi - lo < minRun){
+                int end = Math.min(lo + minRun, N);
+                insertionSort(a, lo, end, hi);
+                hi = end;
+            }
+            runs.push(lo, hi - lo);
+            runs.mergeCollapse();
+            lo = hi;
+        }
+        runs.mergeForceCollapse();
+        assert isSorted(a);
+    }
+
+    //subarrays below this size are a single insertion sorted run
+    private static final int MIN_MERGE = 32;
+    //switch a merge to galloping after one run wins this many times in a row
+    private static final int MIN_GALLOP = 7;
+
+    //k in [MIN_MERGE/2, MIN_MERGE] such that N/k is a power of 2 or just below, so the final merges are balanced
+    private static int minRunLength(int N)
+    {
+        int r = 0;
+        while (N >= MIN_MERGE){
+            r |= (N & 1);
+            N >>= 1;
+        }
+        return N + r;
+    }
+
+    //return the end of the run starting at lo, reversing it first if it is strictly descending
+    private static int countRun(Comparable[] a, int lo, int N)
+    {
+        int hi = lo + 1;
+        if (hi == N) return hi;
+
+        if (less(a[hi++], a[lo])){   // strictly descending, equal keys would lose stability
+            while (hi < N && less(a[hi], a[hi-1]))
+                hi++;
+            for (int i = lo, j = hi-1; i < j; i++, j--){
+                Comparable t = a[i];
+                a[i] = a[j];
+                a[j] = t;
+                SortStats.swap();
+            }
+        }
+        else{
+            while (hi < N && !less(a[hi], a[hi-1]))
+                hi++;
+        }
+        return hi;
+    }
+
+    //insertion sort a[lo..hi-1] knowing a[lo..start-1] is already sorted
+    private static void insertionSort(Comparable[] a, int lo, int hi, int start)
+    {
+        for (int i = start; i < hi; i++){
+            Comparable v = a[i];
+            int j = i;
+            for (; j > lo && less(v, a[j-1]); j--)
+                a[j] = a[j-1];
+            a[j] = v;
+            SortStats.move(i - j + 1);
+        }
+    }
+
+    //the stack of pending runs of one sortNatural() call
+    private static class NaturalMerge
+    {
+        private final Comparable[] a, tmp;
+        //49 runs are enough for 2^31 items since the lengths grow at least like Fibonacci numbers
+        private final int[] runBase = new int[49];
+        private final int[] runLen = new int[49];
+        private int n = 0;   //number of pending runs
+
+        NaturalMerge(Comparable[] a, Comparable[] tmp)
+        {
+            this.a = a;
+            this.tmp = tmp;
+        }
+
+        void push(int base, int len)
+        {
+            runBase[n] = base;
+            runLen[n] = len;
+            n++;
+        }
+
+        //restore runLen[i-2] > runLen[i-1] + runLen[i] and runLen[i-1] > runLen[i] for the top runs
+        void mergeCollapse()
+        {
+            while (n > 1){
+                int i = n - 2;
+                if (i > 0 && runLen[i-1] <= runLen[i] + runLen[i+1] ||
+                    i > 1 && runLen[i-2] <= runLen[i] + runLen[i-1]){
+                    if (runLen[i-1] < runLen[i+1])
+                        i--;
+                }
+                else if (runLen[i] > runLen[i+1])
+                    break;
+                mergeAt(i);
+            }
+        }
+
+        void mergeForceCollapse()
+        {
+            while (n > 1){
+                int i = n - 2;
+                if (i > 0 && runLen[i-1] < runLen[i+1])
+                    i--;
+                mergeAt(i);
+            }
+        }
+
+        //merge the runs i and i+1 of the stack
+        private void mergeAt(int i)
+        {
+            int base1 = runBase[i], len1 = runLen[i];
+            int base2 = runBase[i+1], len2 = runLen[i+1];
+
+            runLen[i] = len1 + len2;
+            if (i == n - 3){
+                runBase[i+1] = runBase[i+2];
+                runLen[i+1] = runLen[i+2];
+            }
+            n--;
+
+            //items of run1 <= a[base2] and items of run2 >= the last of run1 are already in place
+            int k = gallopRight(a[base2], a, base1, len1, 0);
+            base1 += k;
+            len1 -= k;
+            if (len1 == 0) return;
+            len2 = gallopLeft(a[base1 + len1 - 1], a, base2, len2, len2 - 1);
+            if (len2 == 0) return;
+
+            if (len1 <= len2) mergeLo(base1, len1, base2, len2);
+            else              mergeHi(base1, len1, base2, len2);
+        }
+
+        //copy run1 to tmp[] and merge left to right
+        private void mergeLo(int base1, int len1, int base2, int len2)
+        {
+            System.arraycopy(a, base1, tmp, 0, len1);
+            int c1 = 0, c2 = base2, dest = base1;
+            int end1 = len1, end2 = base2 + len2;
+
+            outer:
+            while (true){
+                int count1 = 0, count2 = 0;   //number of times in a row each run won
+                do{
+                    if (less(a[c2], tmp[c1])){
+                        a[dest++] = a[c2++];
+                        count2++;
+                        count1 = 0;
+                        if (c2 == end2) break outer;
+                    }
+                    else{
+                        a[dest++] = tmp[c1++];
+                        count1++;
+                        count2 = 0;
+                        if (c1 == end1) break outer;
+                    }
+                } while ((count1 | count2) < MIN_GALLOP);
+
+                //galloping: find how far the winner stays ahead and copy that block at once
+                do{
+                    count1 = gallopRight(a[c2], tmp, c1, end1 - c1, 0);
+                    if (count1 != 0){
+                        System.arraycopy(tmp, c1, a, dest, count1);
+                        dest += count1;
+                        c1 += count1;
+                        if (c1 == end1) break outer;
+                    }
+                    a[dest++] = a[c2++];
+                    if (c2 == end2) break outer;
+
+                    count2 = gallopLeft(tmp[c1], a, c2, end2 - c2, 0);
+                    if (count2 != 0){
+                        System.arraycopy(a, c2, a, dest, count2);
+                        dest += count2;
+                        c2 += count2;
+                        if (c2 == end2) break outer;
+                    }
+                    a[dest++] = tmp[c1++];
+                    if (c1 == end1) break outer;
+                } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+            }
+            //what is left of run2 is already in place
+            if (c1 < end1){
+                System.arraycopy(tmp, c1, a, dest, end1 - c1);
+                dest += end1 - c1;
+            }
+            SortStats.move(len1 + dest - base1);
+        }
+
+        //copy run2 to tmp[] and merge right to left
+        private void mergeHi(int base1, int len1, int base2, int len2)
+        {
+            System.arraycopy(a, base2, tmp, 0, len2);
+            int c1 = base1 + len1 - 1, c2 = len2 - 1, dest = base2 + len2 - 1;
+
+            outer:
+            while (true){
+                int count1 = 0, count2 = 0;
+                do{
+                    if (less(tmp[c2], a[c1])){
+                        a[dest--] = a[c1--];
+                        count1++;
+                        count2 = 0;
+                        if (c1 < base1) break outer;
+                    }
+                    else{
+                        a[dest--] = tmp[c2--];
+                        count2++;
+                        count1 = 0;
+                        if (c2 < 0) break outer;
+                    }
+                } while ((count1 | count2) < MIN_GALLOP);
+
+                do{
+                    count1 = (c1 - base1 + 1) - gallopRight(tmp[c2], a, base1, c1 - base1 + 1, c1 - base1);
+                    if (count1 != 0){
+                        dest -= count1;
+                        c1 -= count1;
+                        System.arraycopy(a, c1 + 1, a, dest + 1, count1);
+                        if (c1 < base1) break outer;
+                    }
+                    a[dest--] = tmp[c2--];
+                    if (c2 < 0) break outer;
+
+                    count2 = (c2 + 1) - gallopLeft(a[c1], tmp, 0, c2 + 1, c2);
+                    if (count2 != 0){
+                        dest -= count2;
+                        c2 -= count2;
+                        System.arraycopy(tmp, c2 + 1, a, dest + 1, count2);
+                        if (c2 < 0) break outer;
+                    }
+                    a[dest--] = a[c1--];
+                    if (c1 < base1) break outer;
+                } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+            }
+            //what is left of run1 is already in place
+            if (c2 >= 0){
+                System.arraycopy(tmp, 0, a, base1, c2 + 1);
+                dest -= c2 + 1;
+            }
+            SortStats.move(len2 + base2 + len2 - 1 - dest);
+        }
+    }
+
+    //number of items in the sorted a[base..base+len-1] that are < key (where key would be inserted leftmost),
+    //searching exponentially from a[base+hint] before the binary search
+    private static int gallopLeft(Comparable key, Comparable[] a, int base, int len, int hint)
+    {
+        int lastOfs = 0, ofs = 1;
+        if (less(a[base + hint], key)){
+            //gallop right until a[base+hint+lastOfs] < key <= a[base+hint+ofs]
+            int maxOfs = len - hint;
+            while (ofs < maxOfs && less(a[base + hint + ofs], key)){
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;   //int overflow
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            lastOfs += hint;
+            ofs += hint;
+        }
+        else{
+            //gallop left until a[base+hint-ofs] < key <= a[base+hint-lastOfs]
+            int maxOfs = hint + 1;
+            while (ofs < maxOfs && !less(a[base + hint - ofs], key)){
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            int t = lastOfs;
+            lastOfs = hint - ofs;
+            ofs = hint - t;
+        }
+
+        //a[base+lastOfs] < key <= a[base+ofs], binary search in between
+        lastOfs++;
+        while (lastOfs < ofs){
+            int m = lastOfs + (ofs - lastOfs) / 2;
+            if (less(a[base + m], key)) lastOfs = m + 1;
+            else                        ofs = m;
+        }
+        return ofs;
+    }
+
+    //number of items in the sorted a[base..base+len-1] that are <= key (where key would be inserted rightmost)
+    private static int gallopRight(Comparable key, Comparable[] a, int base, int len, int hint)
+    {
+        int lastOfs = 0, ofs = 1;
+        if (less(key, a[base + hint])){
+            //gallop left until a[base+hint-ofs] <= key < a[base+hint-lastOfs]
+            int maxOfs = hint + 1;
+            while (ofs < maxOfs && less(key, a[base + hint - ofs])){
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            int t = lastOfs;
+            lastOfs = hint - ofs;
+            ofs = hint - t;
+        }
+        else{
+            //gallop right until a[base+hint+lastOfs] <= key < a[base+hint+ofs]
+            int maxOfs = len - hint;
+            while (ofs < maxOfs && !less(key, a[base + hint + ofs])){
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            lastOfs += hint;
+            ofs += hint;
+        }
+
+        //a[base+lastOfs] <= key < a[base+ofs]
+        lastOfs++;
+        while (lastOfs < ofs){
+            int m = lastOfs + (ofs - lastOfs) / 2;
+            if (less(key, a[base + m])) ofs = m;
+            else                        lastOfs = m + 1;
+        }
+        return ofs;
+    }
+
+    //In-place mergesort: stable with O(1) extra space (plus the ~lgN deep recursion of the merges),
+    //for arrays too big to double with aux[]
+    // * blocks of INPLACE_BLOCK items are insertion sorted, then merged bottom-up
+    // * SymMerge (Kim & Kutzner): a binary search finds how much of the end of the first run and of the
+    //   start of the second run have to trade places; one rotation swaps them and leaves two
+    //   independent merges of half the size, so no item ever needs a buffer
+    // * with a buffer, a merge whose shorter run fits in it is an ordinary merge through the buffer;
+    //   a buffer of ~sqrt(N) items takes all the merges of the early passes
+    //Performance: ~NlgN compares and ~Nlg^2 N moves without a buffer; stable.
+    public static void sortInPlace(Comparable[] a)
+    {
+        sortInPlace(a, new Comparable[0]);
+    }
+
+    //buffer[] is scratch space of any length
+    public static void sortInPlace(Comparable[] a, Comparable[] buffer)
+    {
+        int N = a.length;
+        for (int lo = 0; lo < N; lo += INPLACE_BLOCK)
+            insertionSort(a, lo, Math.min(lo + INPLACE_BLOCK, N), lo + 1);
+        for (int sz = INPLACE_BLOCK; sz < N; sz = sz+sz)
+            for (int lo = 0; lo < N-sz; lo += sz+sz)
+                mergeInPlace(a, lo, lo+sz, Math.min(lo+sz+sz, N), buffer);
+        assert isSorted(a);
+    }
+
+    //size of the insertion sorted blocks of sortInPlace()
+    private static final int INPLACE_BLOCK = 20;
+
+    //stable merge of the sorted runs a[lo..mid-1] and a[mid..hi-1]
+    private static void mergeInPlace(Comparable[] a, int lo, int mid, int hi, Comparable[] buffer)
+    {
+        //a run is empty or they are already in order
+        if (lo >= mid || mid >= hi || !less(a[mid], a[mid-1]))
+            return;
+
+        int n1 = mid - lo, n2 = hi - mid;
+        if (n1 <= n2 && n1 <= buffer.length){
+            System.arraycopy(a, lo, buffer, 0, n1);
+            int i = 0, j = mid, k = lo;
+            while (i < n1 && j < hi){
+                if (less(a[j], buffer[i])) a[k++] = a[j++];
+                else                       a[k++] = buffer[i++];
+            }
+            SortStats.move(n1 + k - lo + n1 - i);
+            while (i < n1) a[k++] = buffer[i++];   //what is left of run2 is already in place
+            return;
+        }
+        if (n2 <= buffer.length){
+            System.arraycopy(a, mid, buffer, 0, n2);
+            int i = mid-1, j = n2-1, k = hi-1;
+            while (i >= lo && j >= 0){
+                if (less(buffer[j], a[i])) a[k--] = a[i--];
+                else                       a[k--] = buffer[j--];
+            }
+            SortStats.move(n2 + hi-1 - k + j + 1);
+            while (j >= 0) a[k--] = buffer[j--];   //what is left of run1 is already in place
+            return;
+        }
+
+        //the items a[start..mid-1] and a[mid..end-1] trade places around the middle m of a[lo..hi-1],
+        //where end = m + mid - start: find the first start whose item must move right of its mirror
+        int m = lo + (hi - lo) / 2;
+        int start, r;
+        if (mid > m){ start = m + mid - hi; r = m; }
+        else        { start = lo;           r = mid; }
+        int p = m + mid - 1;
+        while (start < r){
+            int c = start + (r - start) / 2;
+            if (!less(a[p - c], a[c])) start = c + 1;
+            else                       r = c;
+        }
+        int end = m + mid - start;
+
+        rotate(a, start, mid, end);
+        SortStats.enter();
+        mergeInPlace(a, lo, start, m, buffer);
+        mergeInPlace(a, m, end, hi, buffer);
+        SortStats.exit();
+    }
+
+    //exchange the blocks a[lo..mid-1] and a[mid..hi-1], by three reversals
+    private static void rotate(Object[] a, int lo, int mid, int hi)
+    {
+        reverse(a, lo, mid);
+        reverse(a, mid, hi);
+        reverse(a, lo, hi);
+    }
+
+    //reverse a[lo..hi-1]
+    private static void reverse(Object[] a, int lo, int hi)
+    {
+        for (int i = lo, j = hi-1; i < j; i++, j--){
+            Object t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+            SortStats.swap();
+        }
+    }
+
+    //primitive keys: the same top-down mergesort as sort(Comparable[]) with plain < compares,
+    //subarrays of NETWORK_CUTOFF keys or fewer are sorted by a sorting network instead of merged
+    public static void sort(int[] a)
+    {
+        sort(a, new int[a.length]);
+        SortStats.allocate(4L * a.length);
+    }
+
+    //aux[] must be at least as long as a[], reuse it between calls to avoid the allocation
+    public static void sort(int[] a, int[] aux)
+    {
+        if (aux.length < a.length) throw new IllegalArgumentException("aux is shorter than a");
+        sort(a, aux, 0, a.length-1);
+    }
+
+    //mergesort a[lo..hi] using aux[lo..hi]
+    public static void sort(int[] a, int[] aux, int lo, int hi)
+    {
+        if (hi - lo < NETWORK_CUTOFF){
+            SortingNetwork.sort(a, lo, hi);
+            return;
+        }
+        int mid = lo + (hi - lo) / 2;
+        sort(a, aux, lo, mid);
+        sort(a, aux, mid+1, hi);
+        if(!less(a[mid+1], a[mid]))
+            return;
+        merge(a, aux, lo, mid, hi);
+    }
+
+    public static void merge(int[] a, int[] aux, int lo, int mid, int hi)
+    {
+        for (int k = lo; k <= hi; k++)
+            aux[k] = a[k];
+
+        int i = lo, j = mid+1;
+        for (int k = lo; k <= hi; k++){
+            if (i > mid)
+                a[k] = aux[j++];
+            else if (j > hi)
+                a[k] = aux[i++];
+            else if (less(aux[j], aux[i]))
+                a[k] = aux[j++];
+            else
+                a[k] = aux[i++];
+        }
+    }
+
+    public static void sort(long[] a)
+    {
+        sort(a, new long[a.length]);
+        SortStats.allocate(8L * a.length);
+    }
+
+    //aux[] must be at least as long as a[], reuse it between calls to avoid the allocation
+    public static void sort(long[] a, long[] aux)
+    {
+        if (aux.length < a.length) throw new IllegalArgumentException("aux is shorter than a");
+        sort(a, aux, 0, a.length-1);
+    }
+
+    //mergesort a[lo..hi] using aux[lo..hi]
+    public static void sort(long[] a, long[] aux, int lo, int hi)
+    {
+        if (hi - lo < NETWORK_CUTOFF){
+            SortingNetwork.sort(a, lo, hi);
+            return;
+        }
+        int mid = lo + (hi - lo) / 2;
+        sort(a, aux, lo, mid);
+        sort(a, aux, mid+1, hi);
+        if(!less(a[mid+1], a[mid]))
+            return;
+        merge(a, aux, lo, mid, hi);
+    }
+
+    public static void merge(long[] a, long[] aux, int lo, int mid, int hi)
+    {
+        for (int k = lo; k <= hi; k++)
+            aux[k] = a[k];
+
+        int i = lo, j = mid+1;
+        for (int k = lo; k <= hi; k++){
+            if (i > mid)
+                a[k] = aux[j++];
+            else if (j > hi)
+                a[k] = aux[i++];
+            else if (less(aux[j], aux[i]))
+                a[k] = aux[j++];
+            else
+                a[k] = aux[i++];
+        }
+    }
+
+    public static void sort(double[] a)
+    {
+        sort(a, new double[a.length]);
+        SortStats.allocate(8L * a.length);
+    }
+
+    //aux[] must be at least as long as a[], reuse it between calls to avoid the allocation
+    public static void sort(double[] a, double[] aux)
+    {
+        if (aux.length < a.length) throw new IllegalArgumentException("aux is shorter than a");
+        sort(a, aux, 0, a.length-1);
+    }
+
+    //mergesort a[lo..hi] using aux[lo..hi]
+    public static void sort(double[] a, double[] aux, int lo, int hi)
+    {
+        if (hi - lo < NETWORK_CUTOFF){
+            SortingNetwork.sort(a, lo, hi);
+            return;
+        }
+        int mid = lo + (hi - lo) / 2;
+        sort(a, aux, lo, mid);
+        sort(a, aux, mid+1, hi);
+        if(!less(a[mid+1], a[mid]))
+            return;
+        merge(a, aux, lo, mid, hi);
+    }
+
+    public static void merge(double[] a, double[] aux, int lo, int mid, int hi)
+    {
+        for (int k = lo; k <= hi; k++)
+            aux[k] = a[k];
+
+        int i = lo, j = mid+1;
+        for (int k = lo; k <= hi; k++){
+            if (i > mid)
+                a[k] = aux[j++];
+            else if (j > hi)
+                a[k] = aux[i++];
+            else if (less(aux[j], aux[i]))
+                a[k] = aux[j++];
+            else
+                a[k] = aux[i++];
+        }
+    }
+
+    //in-place stable mergesort of primitive keys, the same SymMerge as sortInPlace(Comparable[])
+    public static void sortInPlace(int[] a)
+    {
+        sortInPlace(a, new int[0]);
+    }
+
+    //buffer[] is scratch space of any length
+    public static void sortInPlace(int[] a, int[] buffer)
+    {
+        int N = a.length;
+        for (int lo = 0; lo < N; lo += INPLACE_BLOCK){
+            int hi = Math.min(lo + INPLACE_BLOCK, N);
+            for (int i = lo + 1; i < hi; i++){
+                int v = a[i];
+                int j = i;
+                for (; j > lo && less(v, a[j-1]); j--)
+                    a[j] = a[j-1];
+                a[j] = v;
+            }
+        }
+        for (int sz = INPLACE_BLOCK; sz < N; sz = sz+sz)
+            for (int lo = 0; lo < N-sz; lo += sz+sz)
+                mergeInPlace(a, lo, lo+sz, Math.min(lo+sz+sz, N), buffer);
+    }
+
+    private static void mergeInPlace(int[] a, int lo, int mid, int hi, int[] buffer)
+    {
+        if (lo >= mid || mid >= hi || !less(a[mid], a[mid-1]))
+            return;
+
+        int n1 = mid - lo, n2 = hi - mid;
+        if (n1 <= n2 && n1 <= buffer.length){
+            System.arraycopy(a, lo, buffer, 0, n1);
+            int i = 0, j = mid, k = lo;
+            while (i < n1 && j < hi){
+                if (less(a[j], buffer[i])) a[k++] = a[j++];
+                else                       a[k++] = buffer[i++];
+            }
+            while (i < n1) a[k++] = buffer[i++];
+            return;
+        }
+        if (n2 <= buffer.length){
+            System.arraycopy(a, mid, buffer, 0, n2);
+            int i = mid-1, j = n2-1, k = hi-1;
+            while (i >= lo && j >= 0){
+                if (less(buffer[j], a[i])) a[k--] = a[i--];
+                else                       a[k--] = buffer[j--];
+            }
+            while (j >= 0) a[k--] = buffer[j--];
+            return;
+        }
+
+        int m = lo + (hi - lo) / 2;
+        int start, r;
+        if (mid > m){ start = m + mid - hi; r = m; }
+        else        { start = lo;           r = mid; }
+        int p = m + mid - 1;
+        while (start < r){
+            int c = start + (r - start) / 2;
+            if (!less(a[p - c], a[c])) start = c + 1;
+            else                       r = c;
+        }
+        int end = m + mid - start;
+
+        rotate(a, start, mid, end);
+        mergeInPlace(a, lo, start, m, buffer);
+        mergeInPlace(a, m, end, hi, buffer);
+    }
+
+    private static void rotate(int[] a, int lo, int mid, int hi)
+    {
+        reverse(a, lo, mid);
+        reverse(a, mid, hi);
+        reverse(a, lo, hi);
+    }
+
+    private static void reverse(int[] a, int lo, int hi)
+    {
+        for (int i = lo, j = hi-1; i < j; i++, j--){
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    private static boolean less(int v, int w)
+    {
+        return v < w;
+    }
+
+    private static boolean less(long v, long w)
+    {
+        return v < w;
+    }
+
+    //Double.compare is the order of Double.compareTo: -0.0 < 0.0 and NaN is the largest
+    private static boolean less(double v, double w)
+    {
+        return Double.compare(v, w) < 0;
+    }
+
     // is v < W?
     private static boolean less(Comparable v, Comparable w)
     {
+        SortStats.compare();
         return (v.compareTo(w) < 0);
         
     }
@@ -5,19 +5,232 @@
 //               * fewer compares, which depends on how well the partitioning divides the array
 //            2) * running time will be 1.39NlgN (probabilistic),
 //               * is typically faster than mergesort because it does much less data movement
+//            3) * with many duplicate keys, 3-way partitioning is linear when there are only a constant number of distinct keys
 //            
 //--------------------------------------------------------------
 package base;
 
+import java.util.Comparator;
+import java.util.function.ToIntFunction;
 
 public class Quick
 {
+    //partitioning schemes for sort(a, mode)
+    // TWO_WAY:    a[lo..j-1] <= a[j] <= a[j+1..hi], as partition() below
+    // THREE_WAY:  Dijkstra, a[lo..lt-1] < v = a[lt..gt] < a[gt+1..hi], keys equal to v are done after one pass
+    // DUAL_PIVOT: a[lo..lt-1] < p1 <= a[lt+1..gt-1] <= p2 < a[gt+1..hi], two pivots split into three parts
+    public enum Partition { TWO_WAY, THREE_WAY, DUAL_PIVOT }
+
+    private static final int CUTOFF = 10;    //subarrays this small are finished by insertion sort
+    private static final int NINTHER = 40;   //above this size the pivot is Tukey's ninther, else median-of-3
+    private static final int NETWORK_CUTOFF = SortingNetwork.MAX;   //primitive subarrays this small are finished by a sorting network
+
     public static void sort(Comparable[] a)
     {
         StdRandom.shuffle(a);
         sort(a, 0, a.length-1);
     }
 
+    //no upfront shuffle: the pivot is sampled (median-of-3 or ninther) from each subarray instead.
+    //introsort: once the recursion is 2lgN deep the partitions are going badly (sorted or adversarial input),
+    //so the rest of that subarray is heapsorted, which bounds the worst case to ~NlgN compares and lgN stack
+    public static void sort(Comparable[] a, Partition mode)
+    {
+        sort(a, 0, a.length-1, mode, depthLimit(a.length));
+    }
+
+    //2 floor(lgN)
+    private static int depthLimit(int n)
+    {
+        return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(n, 1)));
+    }
+
+    private static void sort(Comparable[] a, int lo, int hi, Partition mode, int depth)
+    {
+        if(hi <= lo + CUTOFF - 1){
+            Insertion.sort(a, lo, hi);
+            return;
+        }
+        if(depth == 0){
+            Heap.sort(a, lo, hi);
+            return;
+        }
+        depth--;
+
+        SortStats.enter();
+        switch(mode){
+        case TWO_WAY: {
+            swap(a, lo, pivot(a, lo, hi));
+            int j = partition(a, lo, hi);
+            sort(a, lo, j-1, mode, depth);
+            sort(a, j+1, hi, mode, depth);
+            break;
+        }
+        case THREE_WAY: {
+            swap(a, lo, pivot(a, lo, hi));
+            Comparable v = a[lo];
+            int lt = lo, i = lo+1, gt = hi;
+            while(i <= gt){
+                SortStats.compare();
+                int cmp = a[i].compareTo(v);
+                if(cmp < 0)      swap(a, lt++, i++);
+                else if(cmp > 0) swap(a, i, gt--);
+                else             i++;
+            }
+            sort(a, lo, lt-1, mode, depth);
+            sort(a, gt+1, hi, mode, depth);
+            break;
+        }
+        case DUAL_PIVOT: {
+            //the pivots are the items at the 1/3 and 2/3 points, moved to the ends
+            int third = (hi - lo + 1) / 3;
+            swap(a, lo, lo + third);
+            swap(a, hi, hi - third);
+            if(less(a[hi], a[lo]))
+                swap(a, lo, hi);
+            Comparable p1 = a[lo], p2 = a[hi];
+
+            int lt = lo+1, i = lo+1, gt = hi-1;
+            while(i <= gt){
+                if(less(a[i], p1))      swap(a, lt++, i++);
+                else if(less(p2, a[i])) swap(a, i, gt--);
+                else                    i++;
+            }
+            swap(a, lo, --lt);
+            swap(a, hi, ++gt);
+
+            sort(a, lo, lt-1, mode, depth);
+            //when p1 == p2 every key in the middle part equals them
+            if(less(a[lt], a[gt]))
+                sort(a, lt+1, gt-1, mode, depth);
+            sort(a, gt+1, hi, mode, depth);
+            break;
+        }
+        }
+        SortStats.exit();
+    }
+
+    //Selection: return the k-th smallest item (k = 0 is the minimum) without sorting everything.
+    //a[] is rearranged so that a[lo..k-1] <= a[k] <= a[k+1..hi].
+    //quickselect, linear on average; introselect: if the partitions keep going badly, the pivot
+    //becomes the median of medians, which has ~3/10 of the items on each side, so the worst case is linear too
+    public static Comparable select(Comparable[] a, int k)
+    {
+        if(k < 0 || k >= a.length) throw new IllegalArgumentException("k is out of range");
+        select(a, 0, a.length-1, k);
+        return a[k];
+    }
+
+    //rearrange a[] so that a[0..k-1] are the k smallest items, in order; the rest are in no particular order
+    public static void partialSort(Comparable[] a, int k)
+    {
+        if(k < 0 || k > a.length) throw new IllegalArgumentException("k is out of range");
+        if(k == 0)
+            return;
+        if(k < a.length)
+            select(a, 0, a.length-1, k-1);
+        sort(a, 0, k-1, Partition.TWO_WAY, depthLimit(k));
+    }
+
+    //put the item of rank k among a[lo..hi] at a[k]
+    private static void select(Comparable[] a, int lo, int hi, int k)
+    {
+        int depth = depthLimit(hi - lo + 1);
+        while(hi > lo + CUTOFF - 1){
+            int p = depth > 0 ? pivot(a, lo, hi) : medianOfMedians(a, lo, hi);
+            depth--;
+            swap(a, lo, p);
+            int j = partition(a, lo, hi);
+            if(j < k)      lo = j+1;
+            else if(j > k) hi = j-1;
+            else           return;
+        }
+        Insertion.sort(a, lo, hi);
+    }
+
+    //index of the median of the medians of the groups of 5 in a[lo..hi];
+    //the medians are moved to the front of a[lo..hi]
+    private static int medianOfMedians(Comparable[] a, int lo, int hi)
+    {
+        int m = lo;
+        for(int i = lo; i <= hi; i += 5){
+            int end = Math.min(i + 4, hi);
+            Insertion.sort(a, i, end);
+            swap(a, m++, i + (end - i)/2);
+        }
+        int mid = lo + (m - 1 - lo)/2;
+        select(a, lo, m-1, mid);
+        return mid;
+    }
+
+    //sort using an alternate order, the same shuffle + 2-way partitioning as sort(Comparable[])
+    public static <T> void sort(T[] a, Comparator<? super T> c)
+    {
+        StdRandom.shuffle(a);
+        sort(a, 0, a.length-1, c);
+    }
+
+    private static <T> void sort(T[] a, int lo, int hi, Comparator<? super T> c)
+    {
+        if(hi <= lo)
+            return;
+        int j = partition(a, lo, hi, c);
+        SortStats.enter();
+        sort(a, lo, j-1, c);
+        sort(a, j+1, hi, c);
+        SortStats.exit();
+    }
+
+    public static <T> int partition(T[] a, int lo, int hi, Comparator<? super T> c)
+    {
+        int i = lo, j = hi+1;
+        T v = a[lo];
+        while(true){
+            while(less(c, a[++i], v))
+                if(i == hi)
+                    break;
+            while(less(c, v, a[--j]))
+                if(j == lo)
+                    break;
+            if(i >= j)
+                break;
+            swap(a, i, j);
+        }
+        swap(a, lo, j);
+        return j;
+    }
+
+    //sort by an int key, which is extracted once per item instead of twice per compare:
+    //the packed (key, index) longs of Merge.sortByKey are quicksorted, in place unlike Merge's.
+    //the index breaks the ties, so even this one is stable
+    public static <T> void sort(T[] a, ToIntFunction<? super T> key)
+    {
+        Merge.sortByKey(a, key, Quick::sort);
+    }
+
+    //index of the pivot for a[lo..hi], median-of-3 for small subarrays, the median of three medians above NINTHER
+    private static int pivot(Comparable[] a, int lo, int hi)
+    {
+        int n = hi - lo + 1;
+        int m = lo + n/2;
+        if(n <= NINTHER)
+            return median3(a, lo, m, hi);
+
+        int eps = n/8;
+        int m1 = median3(a, lo, lo + eps, lo + eps + eps);
+        int m2 = median3(a, m - eps, m, m + eps);
+        int m3 = median3(a, hi - eps - eps, hi - eps, hi);
+        return median3(a, m1, m2, m3);
+    }
+
+    //index of the median of a[i], a[j] and a[k]
+    private static int median3(Comparable[] a, int i, int j, int k)
+    {
+        return (less(a[i], a[j]) ?
+                (less(a[j], a[k]) ? j : less(a[i], a[k]) ? k : i) :
+                (less(a[k], a[j]) ? j : less(a[k], a[i]) ? k : i));
+    }
+
     private static void sort(Comparable[] a, int lo, int hi)
     {
         //TODO: for tiny subarrays, invoking insertion sort will be better
@@ -26,8 +239,10 @@ public class Quick
         //put entry a[j] in its final place in the array for some j
         int j = partition(a, lo, hi);
         
+        SortStats.enter();
         sort(a, lo, j-1);
         sort(a, j+1, hi);
+        SortStats.exit();
     }
 
     //partitioning divides a large randomly ordered array into two smaller randomly ordered subarrays
@@ -48,7 +263,7 @@ public class Quick
                 if(j == lo)  //redundant, since the partitioning item is at a[lo] and not less than itself
                     break;
 
-            if(i>j)
+            if(i >= j)
                 break;
             //then for an exchange to maintain the invariant property
             //no entries to the left of i are greater than v and no entries to the right of j are smaller than v 
@@ -62,18 +277,174 @@ public class Quick
         return j;
     }
     
-    public static void swap(Comparable[] a, int i, int j)
+    public static void swap(Object[] a, int i, int j)
     {
-        Comparable temp = a[i];
+        SortStats.swap();
+        Object temp = a[i];
         a[i] = a[j];
         a[j] = temp;
     }
         
     public static boolean less(Comparable v, Comparable w)
     {
+        SortStats.compare();
         return (v.compareTo(w) < 0);
     }
 
+    private static <T> boolean less(Comparator<? super T> c, T v, T w)
+    {
+        SortStats.compare();
+        return c.compare(v, w) < 0;
+    }
+
+    //primitive keys: the same shuffle + 2-way partitioning quicksort as sort(Comparable[]),
+    //but the compares are plain < on the values, with no boxing and no compareTo calls,
+    //and subarrays of NETWORK_CUTOFF keys or fewer are finished by a sorting network
+    public static void sort(int[] a)
+    {
+        StdRandom.shuffle(a);
+        sort(a, 0, a.length-1);
+    }
+
+    private static void sort(int[] a, int lo, int hi)
+    {
+        if(hi - lo < NETWORK_CUTOFF){
+            SortingNetwork.sort(a, lo, hi);
+            return;
+        }
+        int j = partition(a, lo, hi);
+        sort(a, lo, j-1);
+        sort(a, j+1, hi);
+    }
+
+    public static int partition(int[] a, int lo, int hi)
+    {
+        int i = lo, j = hi+1;
+        int v = a[lo];
+        while(true){
+            while(less(a[++i], v))
+                if(i == hi)
+                    break;
+            while(less(v, a[--j]))
+                if(j == lo)
+                    break;
+            if(i >= j)
+                break;
+            swap(a, i, j);
+        }
+        swap(a, lo, j);
+        return j;
+    }
+
+    public static void sort(long[] a)
+    {
+        StdRandom.shuffle(a);
+        sort(a, 0, a.length-1);
+    }
+
+    private static void sort(long[] a, int lo, int hi)
+    {
+        if(hi - lo < NETWORK_CUTOFF){
+            SortingNetwork.sort(a, lo, hi);
+            return;
+        }
+        int j = partition(a, lo, hi);
+        sort(a, lo, j-1);
+        sort(a, j+1, hi);
+    }
+
+    public static int partition(long[] a, int lo, int hi)
+    {
+        int i = lo, j = hi+1;
+        long v = a[lo];
+        while(true){
+            while(less(a[++i], v))
+                if(i == hi)
+                    break;
+            while(less(v, a[--j]))
+                if(j == lo)
+                    break;
+            if(i >= j)
+                break;
+            swap(a, i, j);
+        }
+        swap(a, lo, j);
+        return j;
+    }
+
+    public static void sort(double[] a)
+    {
+        StdRandom.shuffle(a);
+        sort(a, 0, a.length-1);
+    }
+
+    private static void sort(double[] a, int lo, int hi)
+    {
+        if(hi - lo < NETWORK_CUTOFF){
+            SortingNetwork.sort(a, lo, hi);
+            return;
+        }
+        int j = partition(a, lo, hi);
+        sort(a, lo, j-1);
+        sort(a, j+1, hi);
+    }
+
+    public static int partition(double[] a, int lo, int hi)
+    {
+        int i = lo, j = hi+1;
+        double v = a[lo];
+        while(true){
+            while(less(a[++i], v))
+                if(i == hi)
+                    break;
+            while(less(v, a[--j]))
+                if(j == lo)
+                    break;
+            if(i >= j)
+                break;
+            swap(a, i, j);
+        }
+        swap(a, lo, j);
+        return j;
+    }
+
+    private static void swap(int[] a, int i, int j)
+    {
+        int temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static void swap(long[] a, int i, int j)
+    {
+        long temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static void swap(double[] a, int i, int j)
+    {
+        double temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static boolean less(int v, int w)
+    {
+        return v < w;
+    }
+
+    private static boolean less(long v, long w)
+    {
+        return v < w;
+    }
+
+    //Double.compare is the order of Double.compareTo: -0.0 < 0.0 and NaN is the largest
+    private static boolean less(double v, double w)
+    {
+        return Double.compare(v, w) < 0;
+    }
+
     public static void display(Comparable[] a)
     {
         for(int i=0; i<a.length; i++)
@@ -85,8 +456,12 @@ public class Quick
     public static void main(String[] args)
     {
         String[] a = StdIn.readStrings();
-        
-        sort(a);
+
+        //java Quick THREE_WAY < tobe.txt
+        if(args.length > 0)
+            sort(a, Partition.valueOf(args[0]));
+        else
+            sort(a);
         display(a);
     }
         
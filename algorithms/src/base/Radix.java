@@ -0,0 +1,253 @@
+//Radix.java
+//Description: radix sorts, which look at the keys a digit at a time instead of comparing them
+//   * LSD (least-significant-digit first) for int[] and long[]: one stable counting pass per byte,
+//     from the lowest byte to the highest, ping-ponging between a[] and a buffer
+//   * double[] through the long sort, on the bits of the doubles mapped to order-preserving longs
+//   * 3-way string quicksort (MSD) for String[]: 3-way partition on the d-th character,
+//     then recur on the next character only for the middle part
+//   * LSD for fixed-width String[] keys
+//
+//Performance:
+//   * LSD uses 4 (int) or 8 (long) passes of ~2N array accesses, no compares; a pass is skipped when
+//     every key has the same byte there (e.g. the high bytes of small ids)
+//   * 3-way string quicksort uses ~2NlnN character compares on average, and far fewer when keys share long prefixes
+//
+// Execution: java Radix < tobe.txt
+//---------------------------------------------
+package base;
+
+import java.util.Arrays;
+
+public class Radix
+{
+    private static final int BITS_PER_BYTE = 8;
+    private static final int R = 1 << BITS_PER_BYTE;   //radix, 256 buckets per pass
+    private static final int MASK = R - 1;
+
+    private static final int CUTOFF = 15;   //insertion sort for tiny subarrays in the string sort
+
+    private Radix() { }
+
+    public static void sort(int[] a)
+    {
+        sort(a, new int[a.length]);
+    }
+
+    //aux[] must be at least as long as a[], pass the same aux to reuse it between calls
+    public static void sort(int[] a, int[] aux)
+    {
+        if (aux.length < a.length) throw new IllegalArgumentException("aux is shorter than a");
+        int N = a.length;
+        if (N == 0) return;
+        int W = Integer.SIZE / BITS_PER_BYTE;
+
+        //count the frequencies of every byte of every key in a single scan
+        int[][] count = new int[W][R+1];
+        for (int i = 0; i < N; i++){
+            int v = a[i];
+            for (int d = 0; d < W; d++)
+                count[d][digit(v, d) + 1]++;
+        }
+
+        int[] src = a, dst = aux;
+        for (int d = 0; d < W; d++){
+            if (count[d][digit(a[0], d) + 1] == N)   //all keys have the same byte d
+                continue;
+
+            //compute the start of each bucket, then distribute keeping the order within buckets (stable)
+            int[] start = count[d];
+            for (int r = 0; r < R; r++)
+                start[r+1] += start[r];
+            for (int i = 0; i < N; i++){
+                int v = src[i];
+                dst[start[digit(v, d)]++] = v;
+            }
+
+            int[] t = src;
+            src = dst;
+            dst = t;
+        }
+
+        //an odd number of passes left the result in aux
+        if (src != a)
+            System.arraycopy(src, 0, a, 0, N);
+    }
+
+    //byte d of v (0 is the lowest), the sign bit is flipped in the top byte so that negatives come first
+    private static int digit(int v, int d)
+    {
+        int b = (v >>> (BITS_PER_BYTE * d)) & MASK;
+        if (d == Integer.SIZE / BITS_PER_BYTE - 1)
+            b ^= R >>> 1;
+        return b;
+    }
+
+    public static void sort(long[] a)
+    {
+        sort(a, new long[a.length]);
+    }
+
+    //aux[] must be at least as long as a[], pass the same aux to reuse it between calls
+    public static void sort(long[] a, long[] aux)
+    {
+        if (aux.length < a.length) throw new IllegalArgumentException("aux is shorter than a");
+        int N = a.length;
+        if (N == 0) return;
+        int W = Long.SIZE / BITS_PER_BYTE;
+
+        int[][] count = new int[W][R+1];
+        for (int i = 0; i < N; i++){
+            long v = a[i];
+            for (int d = 0; d < W; d++)
+                count[d][digit(v, d) + 1]++;
+        }
+
+        long[] src = a, dst = aux;
+        for (int d = 0; d < W; d++){
+            if (count[d][digit(a[0], d) + 1] == N)
+                continue;
+
+            int[] start = count[d];
+            for (int r = 0; r < R; r++)
+                start[r+1] += start[r];
+            for (int i = 0; i < N; i++){
+                long v = src[i];
+                dst[start[digit(v, d)]++] = v;
+            }
+
+            long[] t = src;
+            src = dst;
+            dst = t;
+        }
+
+        if (src != a)
+            System.arraycopy(src, 0, a, 0, N);
+    }
+
+    private static int digit(long v, int d)
+    {
+        int b = (int) (v >>> (BITS_PER_BYTE * d)) & MASK;
+        if (d == Long.SIZE / BITS_PER_BYTE - 1)
+            b ^= R >>> 1;
+        return b;
+    }
+
+    //doubles in the order of Double.compare (-0.0 before 0.0, NaN last): the bits of a double
+    //compare like a signed long once the other 63 bits of the negatives are flipped, so the keys
+    //are mapped to longs, radix sorted, and mapped back (the map is its own inverse).
+    //NaNs come back as the canonical NaN
+    public static void sort(double[] a)
+    {
+        int N = a.length;
+        long[] bits = new long[N];
+        for (int i = 0; i < N; i++)
+            bits[i] = sortable(Double.doubleToLongBits(a[i]));
+        sort(bits);
+        for (int i = 0; i < N; i++)
+            a[i] = Double.longBitsToDouble(sortable(bits[i]));
+    }
+
+    private static long sortable(long bits)
+    {
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    //LSD sort of strings that all have exactly W characters (fixed-width keys like ids or plate numbers)
+    public static void sort(String[] a, int W)
+    {
+        int N = a.length;
+        int radix = Character.MAX_VALUE + 1;
+        String[] aux = new String[N];
+        int[] count = new int[radix+1];
+
+        for (int d = W-1; d >= 0; d--){
+            Arrays.fill(count, 0);
+            for (int i = 0; i < N; i++)
+                count[a[i].charAt(d) + 1]++;
+            for (int r = 0; r < radix; r++)
+                count[r+1] += count[r];
+            for (int i = 0; i < N; i++)
+                aux[count[a[i].charAt(d)]++] = a[i];
+            System.arraycopy(aux, 0, a, 0, N);
+        }
+    }
+
+    //3-way string quicksort, for strings of any length
+    public static void sort(String[] a)
+    {
+        StdRandom.shuffle(a);
+        sort(a, 0, a.length-1, 0);
+    }
+
+    //sort a[lo..hi], all of which have the same first d characters
+    private static void sort(String[] a, int lo, int hi, int d)
+    {
+        if (hi <= lo + CUTOFF){
+            insertion(a, lo, hi, d);
+            return;
+        }
+
+        //a[lo..lt-1] < v = a[lt..gt] < a[gt+1..hi] on character d
+        int lt = lo, gt = hi;
+        int v = charAt(a[lo], d);
+        int i = lo + 1;
+        while (i <= gt){
+            int t = charAt(a[i], d);
+            if      (t < v) swap(a, lt++, i++);
+            else if (t > v) swap(a, i, gt--);
+            else            i++;
+        }
+
+        sort(a, lo, lt-1, d);
+        if (v >= 0)   //v == -1 means the strings in the middle have all ended
+            sort(a, lt, gt, d+1);
+        sort(a, gt+1, hi, d);
+    }
+
+    //d-th character of s, -1 past the end so that shorter strings come first
+    private static int charAt(String s, int d)
+    {
+        if (d < s.length()) return s.charAt(d);
+        return -1;
+    }
+
+    //insertion sort a[lo..hi], starting at the d-th character
+    private static void insertion(String[] a, int lo, int hi, int d)
+    {
+        for (int i = lo; i <= hi; i++)
+            for (int j = i; j > lo && less(a[j], a[j-1], d); j--)
+                swap(a, j, j-1);
+    }
+
+    //is v < w, knowing the first d characters are equal?
+    private static boolean less(String v, String w, int d)
+    {
+        for (int i = d; i < Math.min(v.length(), w.length()); i++){
+            if (v.charAt(i) < w.charAt(i)) return true;
+            if (v.charAt(i) > w.charAt(i)) return false;
+        }
+        return v.length() < w.length();
+    }
+
+    private static void swap(String[] a, int i, int j)
+    {
+        String temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    public static void display(String[] a)
+    {
+        for (int i = 0; i < a.length; i++)
+            StdOut.print(a[i] + " ");
+        StdOut.println();
+    }
+
+    //test
+    public static void main(String[] args)
+    {
+        String[] a = StdIn.readStrings();
+        sort(a);
+        display(a);
+    }
+}
@@ -0,0 +1,324 @@
+//RedBlackBST.java
+//Description: * a left-leaning red-black BST: a 2-3 tree stored as a BST, where a 3-node is two nodes
+//               joined by a red link that always leans left
+//             * every path from the root to a null link has the same number of black links,
+//               and no node has two red links, so the height is at most 2lgN whatever the insertion order
+//             * put and delete go down like in BST, then rotations and color flips on the way back up
+//               restore the invariants; get, floor, rank, min are the plain BST code, iterative
+//             * values are never null: put(key, null) deletes the key, like in BTreeST
+//
+//Performance:
+//            * get, put, delete, deleteMin, min, floor, rank are at most ~2lgN compares, also for
+//              sorted or nearly sorted keys (timestamps), where the unbalanced BST degrades to N
+//            * the recursion of put and delete is at most 2lgN deep, never a stack overflow
+//            * keys() is N
+//
+// Execution: java RedBlackBST < tobe.txt
+//-----------------------------------------------
+package base;
+
+import java.util.NoSuchElementException;
+
+public class RedBlackBST<Key extends Comparable<Key>, Value>
+{
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    private Node root;  // root of BST
+
+    private class Node {
+        private Key key;
+        private Value val;
+        private Node left, right;
+        private int count;      //number of nodes in the subtree rooted at the node
+        private boolean color;  //color of the link from the parent to this node
+
+        public Node(Key key, Value val, int N, boolean color)
+        {
+            this.key = key;
+            this.val = val;
+            this.count = N;
+            this.color = color;
+        }
+    }
+
+    private boolean isRed(Node x)
+    {
+        if(x == null) return false;  //null links are black
+        return x.color == RED;
+    }
+
+    public int size()
+    {
+        return size(root);
+    }
+
+    private int size(Node x)
+    {
+        if(x == null) return 0;
+        else return x.count;
+    }
+
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    //return value associated with the given key, or null if no such key exists
+    public Value get(Key key)
+    {
+        Node x = root;
+        while(x != null){
+            int cmp = key.compareTo(x.key);
+            if(cmp < 0)      x = x.left;
+            else if(cmp > 0) x = x.right;
+            else             return x.val;
+        }
+        return null;
+    }
+
+    public boolean contains(Key key)
+    {
+        return get(key) != null;
+    }
+
+    //insert key-value pair, if key already exists, update with new value;
+    //a null value deletes the key, so that get() returning null always means the key is absent
+    public void put(Key key, Value val)
+    {
+        if(val == null){
+            delete(key);
+            return;
+        }
+        root = put(root, key, val);
+        root.color = BLACK;
+    }
+
+    private Node put(Node h, Key key, Value val)
+    {
+        if(h == null)
+            return new Node(key, val, 1, RED);  //a new node joins its parent with a red link
+
+        int cmp = key.compareTo(h.key);
+        if(cmp < 0)      h.left = put(h.left, key, val);
+        else if(cmp > 0) h.right = put(h.right, key, val);
+        else             h.val = val;
+
+        return balance(h);
+    }
+
+    public Key min()
+    {
+        if(isEmpty()) throw new NoSuchElementException("empty symbol table");
+        return min(root).key;
+    }
+
+    private Node min(Node x)
+    {
+        while(x.left != null)
+            x = x.left;
+        return x;
+    }
+
+    //floor of key is the largest key in the table less than or equal to key, null if there is none
+    public Key floor(Key key)
+    {
+        Key best = null;
+        Node x = root;
+        while(x != null){
+            int cmp = key.compareTo(x.key);
+            if(cmp == 0) return x.key;
+            if(cmp < 0)  x = x.left;
+            else{
+                best = x.key;  //x.key < key, a candidate unless the right subtree has a closer one
+                x = x.right;
+            }
+        }
+        return best;
+    }
+
+    //rank: how many keys < key ?
+    public int rank(Key key)
+    {
+        int r = 0;
+        Node x = root;
+        while(x != null){
+            int cmp = key.compareTo(x.key);
+            if(cmp < 0)
+                x = x.left;
+            else if(cmp > 0){
+                r += 1 + size(x.left);
+                x = x.right;
+            }
+            else
+                return r + size(x.left);
+        }
+        return r;
+    }
+
+    //the keys in ascending order, in-order traversal
+    public Iterable<Key> keys()
+    {
+        Queue<Key> q = new Queue<Key>();
+        inorder(root, q);
+        return q;
+    }
+
+    private void inorder(Node x, Queue<Key> q)
+    {
+        if(x == null)
+            return;
+        inorder(x.left, q);
+        q.insert(x.key);
+        inorder(x.right, q);
+    }
+
+    //height of the tree, -1 when empty; at most 2lgN
+    public int height()
+    {
+        return height(root);
+    }
+
+    private int height(Node x)
+    {
+        if(x == null) return -1;
+        return 1 + Math.max(height(x.left), height(x.right));
+    }
+
+    //delete the min key
+    //going down the left spine, make sure the current node is not a 2-node (borrow from the sibling
+    //or merge with it), so the min can be removed without breaking the black balance
+    public void deleteMin()
+    {
+        if(isEmpty()) throw new NoSuchElementException("empty symbol table");
+        if(!isRed(root.left) && !isRed(root.right))
+            root.color = RED;
+        root = deleteMin(root);
+        if(!isEmpty()) root.color = BLACK;
+    }
+
+    private Node deleteMin(Node h)
+    {
+        if(h.left == null)
+            return null;  //in a left-leaning tree a node with no left child has no right child either
+        if(!isRed(h.left) && !isRed(h.left.left))
+            h = moveRedLeft(h);
+        h.left = deleteMin(h.left);
+        return balance(h);
+    }
+
+    //delete the key and its value, if it is in the table
+    public void delete(Key key)
+    {
+        if(!contains(key)) return;
+        if(!isRed(root.left) && !isRed(root.right))
+            root.color = RED;
+        root = delete(root, key);
+        if(!isEmpty()) root.color = BLACK;
+    }
+
+    private Node delete(Node h, Key key)
+    {
+        if(key.compareTo(h.key) < 0){
+            if(!isRed(h.left) && !isRed(h.left.left))
+                h = moveRedLeft(h);
+            h.left = delete(h.left, key);
+        }
+        else{
+            if(isRed(h.left))
+                h = rotateRight(h);
+            if(key.compareTo(h.key) == 0 && h.right == null)
+                return null;
+            if(!isRed(h.right) && !isRed(h.right.left))
+                h = moveRedRight(h);
+            if(key.compareTo(h.key) == 0){
+                //replace by the successor, then delete the successor from the right subtree
+                Node x = min(h.right);
+                h.key = x.key;
+                h.val = x.val;
+                h.right = deleteMin(h.right);
+            }
+            else
+                h.right = delete(h.right, key);
+        }
+        return balance(h);
+    }
+
+    //make a right-leaning red link lean left
+    private Node rotateLeft(Node h)
+    {
+        Node x = h.right;
+        h.right = x.left;
+        x.left = h;
+        x.color = h.color;
+        h.color = RED;
+        x.count = h.count;
+        h.count = 1 + size(h.left) + size(h.right);
+        return x;
+    }
+
+    //make a left-leaning red link lean right
+    private Node rotateRight(Node h)
+    {
+        Node x = h.left;
+        h.left = x.right;
+        x.right = h;
+        x.color = h.color;
+        h.color = RED;
+        x.count = h.count;
+        h.count = 1 + size(h.left) + size(h.right);
+        return x;
+    }
+
+    //split a temporary 4-node (both links red) by passing the red link up, or the reverse when deleting
+    private void flipColors(Node h)
+    {
+        h.color = !h.color;
+        h.left.color = !h.left.color;
+        h.right.color = !h.right.color;
+    }
+
+    //h is red and h.left, h.left.left are black: make h.left or one of its children red
+    private Node moveRedLeft(Node h)
+    {
+        flipColors(h);
+        if(isRed(h.right.left)){
+            h.right = rotateRight(h.right);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    //h is red and h.right, h.right.left are black: make h.right or one of its children red
+    private Node moveRedRight(Node h)
+    {
+        flipColors(h);
+        if(isRed(h.left.left)){
+            h = rotateRight(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    //restore the invariants at h on the way up, and its count
+    private Node balance(Node h)
+    {
+        if(isRed(h.right) && !isRed(h.left))    h = rotateLeft(h);
+        if(isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if(isRed(h.left) && isRed(h.right))     flipColors(h);
+        h.count = 1 + size(h.left) + size(h.right);
+        return h;
+    }
+
+    //test
+    public static void main(String[] args)
+    {
+        RedBlackBST<String, Integer> st = new RedBlackBST<String, Integer>();
+        for(int i = 0; !StdIn.isEmpty(); i++)
+            st.put(StdIn.readString(), i);
+        for(String s : st.keys())
+            StdOut.println(s + " " + st.get(s));
+        StdOut.println("size " + st.size() + ", height " + st.height());
+    }
+}
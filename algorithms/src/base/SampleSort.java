@@ -0,0 +1,245 @@
+//SampleSort.java
+//Description: parallel sample sort
+//   1) oversample: draw OVERSAMPLE * B random items with StdRandom, sort them, and take every
+//      OVERSAMPLE-th as the B-1 splitters of B buckets (the oversampling keeps the buckets close in size);
+//      a splitter drawn more than once is a frequent key, and gets a bucket for the items equal to it
+//   2) split the array into chunks; in parallel, find the bucket of every item (binary search
+//      on the splitters) and count the bucket sizes of every chunk
+//   3) prefix sums give every (chunk, bucket) its place; in parallel, scatter the items to aux[]
+//   4) in parallel, sort every bucket with the sequential Merge and copy it back;
+//      an equal-key bucket is already in order and is just copied back
+//
+//Performance:
+//   * ~NlgB compares to scatter plus ~N/B lg(N/B) per bucket, spread over the workers, so close to
+//     linear speedup while N/B is large compared to the sampling and the prefix sums,
+//     also with few distinct keys, whose items go to equal-key buckets that need no sorting
+//   * stable: the scatter keeps the order of the chunks and of the items in each chunk,
+//     equal keys always go to the same bucket, and Merge is stable
+//   * extra space: aux[] and the bucket of every item
+//
+// Execution: java SampleSort < tobe.txt
+//---------------------------------------------
+package base;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+public class SampleSort
+{
+    //arrays smaller than this are sorted sequentially
+    public static final int SEQUENTIAL_THRESHOLD = 1 << 14;
+    //number of samples per bucket
+    private static final int OVERSAMPLE = 32;
+    //buckets per worker, more than one so that a slow bucket does not stall the others
+    private static final int BUCKETS_PER_WORKER = 4;
+
+    private SampleSort() { }
+
+    public static void sort(int[] a)
+    {
+        sort(a, ForkJoinPool.commonPool());
+    }
+
+    public static void sort(final int[] a, ForkJoinPool pool)
+    {
+        if (a.length < SEQUENTIAL_THRESHOLD){
+            Merge.sort(a);
+            return;
+        }
+
+        int B = buckets(a.length, pool);
+        int[] sample = new int[OVERSAMPLE * B];
+        for (int i = 0; i < sample.length; i++)
+            sample[i] = a[StdRandom.uniform(a.length)];
+        Merge.sort(sample);
+
+        //the distinct splitters; a repeated one is a key frequent enough for a bucket of its own
+        final int[] splitters = new int[B - 1];
+        int m = 0;
+        for (int i = 1; i < B; i++){
+            int s = sample[i * OVERSAMPLE];
+            if (m == 0 || s != splitters[m-1])
+                splitters[m++] = s;
+        }
+        final int M = m;
+        final int[] aux = new int[a.length];
+
+        new Distribution(a.length, B, M, M < B - 1) {
+            int bucketOf(int i) {
+                int v = a[i];
+                int lo = 0, hi = M;   //number of splitters <= v, binary search
+                while (lo < hi){
+                    int mid = lo + (hi - lo) / 2;
+                    if (v < splitters[mid]) hi = mid;
+                    else                    lo = mid + 1;
+                }
+                return bucket(lo, lo > 0 && v == splitters[lo-1]);
+            }
+            void move(int i, int to)       { aux[to] = a[i]; }
+            void sort(int lo, int hi)      { Merge.sort(aux, a, lo, hi); copy(lo, hi); }
+            void copy(int lo, int hi)      { System.arraycopy(aux, lo, a, lo, hi - lo + 1); }
+        }.run(pool);
+    }
+
+    public static void sort(Comparable[] a)
+    {
+        sort(a, ForkJoinPool.commonPool());
+    }
+
+    public static void sort(final Comparable[] a, ForkJoinPool pool)
+    {
+        if (a.length < SEQUENTIAL_THRESHOLD){
+            Merge.sort(a);
+            return;
+        }
+
+        int B = buckets(a.length, pool);
+        Comparable[] sample = new Comparable[OVERSAMPLE * B];
+        for (int i = 0; i < sample.length; i++)
+            sample[i] = a[StdRandom.uniform(a.length)];
+        Merge.sort(sample);
+
+        final Comparable[] splitters = new Comparable[B - 1];
+        int m = 0;
+        for (int i = 1; i < B; i++){
+            Comparable s = sample[i * OVERSAMPLE];
+            if (m == 0 || s.compareTo(splitters[m-1]) != 0)
+                splitters[m++] = s;
+        }
+        final int M = m;
+        final Comparable[] aux = new Comparable[a.length];
+
+        new Distribution(a.length, B, M, M < B - 1) {
+            int bucketOf(int i) {
+                Comparable v = a[i];
+                int lo = 0, hi = M;
+                while (lo < hi){
+                    int mid = lo + (hi - lo) / 2;
+                    if (v.compareTo(splitters[mid]) < 0) hi = mid;
+                    else                                 lo = mid + 1;
+                }
+                return bucket(lo, lo > 0 && equal && v.compareTo(splitters[lo-1]) == 0);
+            }
+            void move(int i, int to)       { aux[to] = a[i]; }
+            void sort(int lo, int hi)      { Merge.sort(aux, a, lo, hi); copy(lo, hi); }
+            void copy(int lo, int hi)      { System.arraycopy(aux, lo, a, lo, hi - lo + 1); }
+        }.run(pool);
+    }
+
+    //steps 2) to 4) for N items and M distinct splitters, the same for every array type:
+    //a subclass says which bucket an item goes to and moves, sorts and copies the items
+    //   * without equal-key buckets, bucket j holds the items with j splitters <= them (M+1 buckets)
+    //   * with them (some splitter was repeated in the sample), every splitter also gets a bucket of the
+    //     items equal to it: 2j for the items strictly between splitters j-1 and j, 2j-1 for those equal
+    //     to splitter j-1 (2M+1 buckets); the items of an equal-key bucket are already in order,
+    //     so a key that is a large part of the input is copied instead of sorted by one worker
+    private static abstract class Distribution
+    {
+        final int N, B, K;       //items, chunks, buckets
+        final boolean equal;     //equal-key buckets?
+        final int chunk;         //items per chunk, the same as the buckets are expected to get
+
+        Distribution(int N, int B, int M, boolean equal)
+        {
+            this.N = N;
+            this.B = B;
+            this.equal = equal;
+            this.K = equal ? 2*M + 1 : M + 1;
+            this.chunk = (N + B - 1) / B;
+        }
+
+        //the bucket of an item with j splitters <= it, which is equal to splitter j-1 if same
+        int bucket(int j, boolean same)
+        {
+            if (!equal) return j;
+            return same ? 2*j - 1 : 2*j;
+        }
+
+        abstract int bucketOf(int i);        //bucket of a[i]
+        abstract void move(int i, int to);   //aux[to] = a[i]
+        abstract void sort(int lo, int hi);  //sort aux[lo..hi] into a[lo..hi]
+        abstract void copy(int lo, int hi);  //copy aux[lo..hi] to a[lo..hi]
+
+        void run(ForkJoinPool pool)
+        {
+            final int[] bucket = new int[N];
+            final int[][] count = new int[B][K];
+            parallelFor(pool, B, new IntConsumer() {
+                public void accept(int c) {
+                    for (int i = c * chunk; i < Math.min(N, (c + 1) * chunk); i++){
+                        int b = bucketOf(i);
+                        bucket[i] = b;
+                        count[c][b]++;
+                    }
+                }
+            });
+
+            //start[c][b] is where chunk c writes its items of bucket b; bucket b begins at first[b]
+            final int[] first = new int[K + 1];
+            final int[][] start = new int[B][K];
+            int pos = 0;
+            for (int b = 0; b < K; b++){
+                first[b] = pos;
+                for (int c = 0; c < B; c++){
+                    start[c][b] = pos;
+                    pos += count[c][b];
+                }
+            }
+            first[K] = N;
+
+            parallelFor(pool, B, new IntConsumer() {
+                public void accept(int c) {
+                    int[] next = start[c];
+                    for (int i = c * chunk; i < Math.min(N, (c + 1) * chunk); i++)
+                        move(i, next[bucket[i]]++);
+                }
+            });
+
+            //sort every bucket in aux[], using the same part of a[] as scratch, and copy it back
+            parallelFor(pool, K, new IntConsumer() {
+                public void accept(int b) {
+                    int lo = first[b], hi = first[b+1] - 1;
+                    if (hi < lo) return;
+                    if (equal && b % 2 == 1) copy(lo, hi);
+                    else                     sort(lo, hi);
+                }
+            });
+        }
+    }
+
+    //number of buckets: a few per worker, but not so many that the buckets get tiny
+    private static int buckets(int N, ForkJoinPool pool)
+    {
+        int B = pool.getParallelism() * BUCKETS_PER_WORKER;
+        B = Math.min(B, N / (SEQUENTIAL_THRESHOLD / 4));
+        return Math.max(B, 2);
+    }
+
+    //run body(0), ..., body(n-1) as tasks in the pool, and wait for all of them
+    private static void parallelFor(ForkJoinPool pool, int n, final IntConsumer body)
+    {
+        final List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+        for (int i = 0; i < n; i++){
+            final int index = i;
+            tasks.add(new RecursiveAction() {
+                protected void compute() { body.accept(index); }
+            });
+        }
+        pool.invoke(new RecursiveAction() {
+            protected void compute() { invokeAll(tasks); }
+        });
+    }
+
+    //test
+    public static void main(String[] args)
+    {
+        String[] a = StdIn.readStrings();
+        sort(a);
+        for (int i = 0; i < a.length; i++)
+            StdOut.print(a[i] + " ");
+        StdOut.println();
+    }
+}
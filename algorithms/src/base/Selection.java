@@ -1,6 +1,6 @@
 /*
-ArraySort.java: wenlong
-Description: bubble sort, selection sort, heap sort
+Selection.java: wenlong
+Description: selection sort
 Assume: 1) total order (like v.compareTo(w))
         2) callback = reference to executable code
               * client passes array of objects to sort() function
@@ -19,6 +19,7 @@ from O(N*N) to O(N). Unfortunately, the number of comparisons remains O(N*N) .
 package base;
 
 import java.lang.Comparable;
+import java.util.Comparator;
 //this sorting logic must be in same class whose objects are being sorted,
 //this is called natural ordering of objects
 
@@ -30,134 +31,129 @@ import java.lang.Comparable;
   }
 */
 
-//bubble sort
-class Bubble
+//Selection Sort
+//repeatedly selecting the smallest remaining item and exchange it with the corresponding entry
+class Selection
 {
     public static void sort(Comparable[] a)
     {
         int N = a.length;
-        //find the remaining biggest in every loop
-        for(int out=N-1; out>1; out--) // outer loop is backward
-            for(int in=0; in<out; in++) // inner loop is forward
-                if ( less(a[in+1],a[in]) )
-                    swap(a, in, in+1);
+        for(int i=0; i<N; i++){
+            //exchange a[i] with smallest entry in a[1+1...N]
+            int min = i;
+            for(int j=i+1;j<N;j++) //assume i is the min entry
+                if(less(a[j],a[min]))
+                    min = j;
+            swap(a, i, min); //reduce the swap times here compared with Bubble
+        }
     }
 
-    //exchange a[i] and a[j]
-    public static void swap(Comparable[] a, int i, int j)
+    //sort using an alternate order
+    public static <T> void sort(T[] a, Comparator<? super T> c)
     {
-        Comparable temp = a[i];
-        a[i] = a[j];
-        a[j] = temp;
+        int N = a.length;
+        for(int i=0; i<N; i++){
+            int min = i;
+            for(int j=i+1;j<N;j++)
+                if(less(c, a[j],a[min]))
+                    min = j;
+            swap(a, i, min);
+        }
     }
 
-    private static boolean less(Comparable v, Comparable w)
+    //primitive keys
+    public static void sort(int[] a)
     {
-        return v.compareTo(w) < 0;
+        int N = a.length;
+        for(int i=0; i<N; i++){
+            int min = i;
+            for(int j=i+1;j<N;j++)
+                if(less(a[j],a[min]))
+                    min = j;
+            swap(a, i, min);
+        }
     }
 
-}
+    public static void sort(long[] a)
+    {
+        int N = a.length;
+        for(int i=0; i<N; i++){
+            int min = i;
+            for(int j=i+1;j<N;j++)
+                if(less(a[j],a[min]))
+                    min = j;
+            swap(a, i, min);
+        }
+    }
 
-//Selection Sort
-//repeatedly selecting the smallest remaining item and exchange it with the corresponding entry
-class Selection
-{
-    public static void sort(Comparable[] a)
+    public static void sort(double[] a)
     {
         int N = a.length;
         for(int i=0; i<N; i++){
-            //exchange a[i] with smallest entry in a[1+1...N]
             int min = i;
-            for(int j=i+1;j<N;j++) //assume i is the min entry
+            for(int j=i+1;j<N;j++)
                 if(less(a[j],a[min]))
                     min = j;
-            swap(a, i, min); //reduce the swap times here compared with Bubble
+            swap(a, i, min);
         }
     }
 
     private static boolean less(Comparable v, Comparable w)
     {
+        SortStats.compare();
         return v.compareTo(w) < 0;
     }
 
-    //exchange a[i] and a[j]
-    private static void swap(Comparable[] a, int i, int j)
+    private static <T> boolean less(Comparator<? super T> c, T v, T w)
     {
-        Comparable temp = a[i];
-        a[i] = a[j];
-        a[j] = temp;
+        SortStats.compare();
+        return c.compare(v, w) < 0;
     }
 
-    public static void display(Comparable[] a)
+    //exchange a[i] and a[j]
+    private static void swap(Object[] a, int i, int j)
     {
-        for(int i=0; i<a.length; i++)
-            StdOut.print(a[i] + " ");
-        StdOut.println();
+        SortStats.swap();
+        Object temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
     }
 
-    public static boolean isSorted(Comparable[] a)
+    private static void swap(int[] a, int i, int j)
     {
-        for(int i=0; i<a.length; i++)
-            if(less(a[i],a[i-1])) //total order
-                return false;
-        return true;
+        int temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
     }
 
-    //test
-    public static void main(String[] args)
+    private static void swap(long[] a, int i, int j)
     {
-        String[] a = StdIn.readStrings();
-        
-        sort(a);
-        assert isSorted(a);
-        display(a);
-        
+        long temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
     }
-    
-}
 
-class Heap 
-{
-    private Heap() { }
-
-    public static void sort(Comparable[] a)
+    private static void swap(double[] a, int i, int j)
     {
-        int N  = a.length;
-        for(int k = N/2; k >= 1; k--)
-            sink(a, k, N);
-
-        while (N > 1){
-            swap(a, 1, N--);
-            sink(a, 1, N);
-        }
-                
+        double temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
     }
 
-    private static void sink(Comparable[] a, int k, int N)
+    private static boolean less(int v, int w)
     {
-        while( 2*k <= N ){ //a node's key smaller than one of the node's children's keys
-            int j = 2*k;
-            if(less(j, j+1) && j < N)
-                j++; //get the larger child
-            
-            if(!less(k, j)) //whether the child needs to be promoted
-                break;
-
-            swap(a, k, j);
-            k = j;
-        }
+        return v < w;
     }
 
-    private static boolean less(Comparable v, Comparable w )
+    private static boolean less(long v, long w)
     {
-        return v.compareTo(w) < 0;
+        return v < w;
     }
 
-    private static void swap(Comparable[] a, int i, int j)
+    //Double.compare is the order of Double.compareTo: -0.0 < 0.0 and NaN is the largest
+    private static boolean less(double v, double w)
     {
-        Comparable temp = a[i-1];
-        a[i-1] = a[j-1];
-        a[j-1] = temp;
+        return Double.compare(v, w) < 0;
     }
 
     public static void display(Comparable[] a)
@@ -167,15 +163,23 @@ class Heap
         StdOut.println();
     }
 
+    public static boolean isSorted(Comparable[] a)
+    {
+        for(int i=1; i<a.length; i++)
+            if(less(a[i],a[i-1])) //total order
+                return false;
+        return true;
+    }
+
     //test
     public static void main(String[] args)
     {
-        String[] pq = StdIn.readStrings();
-        display(pq);
+        String[] a = StdIn.readStrings();
+        
+        sort(a);
+        assert isSorted(a);
+        display(a);
         
-        Heap.sort(pq);
-        display(pq);
     }
+    
 }
-
-
@@ -0,0 +1,247 @@
+//SortBenchmark.java
+//Description: benchmark of the sorters in base, over input distributions and sizes
+//   * every sorter runs on a fresh copy of the same input, warmup iterations for at least
+//     a second first so that the JIT has compiled it, then the measured iterations
+//   * reports ops/s (sorts per second), ms per sort, and the bytes allocated per sort and
+//     per second (from the per-thread allocation counter of the HotSpot ThreadMXBean)
+//   * every result is checked, so a broken sorter fails the run instead of reporting a time
+//   * the quadratic sorters are skipped above QUADRATIC_MAX
+//
+// Execution: java -Xmx4g SortBenchmark [sorters] [distributions] [sizes]
+//   java SortBenchmark                                   all sorters, distributions and sizes
+//   java SortBenchmark Quick,Merge random,zipf 1000,1000000
+//   java SortBenchmark list                              names of the sorters and distributions
+//---------------------------------------------
+package base;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SortBenchmark
+{
+    private static final int[] SIZES = { 1000, 10000, 100000, 1000000, 10000000 };
+    private static final String[] DISTRIBUTIONS = { "random", "sorted", "reversed", "fewunique", "zipf" };
+    private static final int QUADRATIC_MAX = 1 << 15;
+
+    private static final int WARMUP = 3;
+    private static final long WARMUP_NANOS = 1000000000L;
+    private static final int ITERATIONS = 5;
+    private static final long SEED = 20150101L;
+
+    private interface BoxedSort { void sort(Integer[] a); }
+    private interface IntSort { void sort(int[] a); }
+
+    //one benchmarked sort: how to build its input from the keys, how to sort and check it
+    private static abstract class Sorter
+    {
+        final String name;
+        final boolean quadratic;
+
+        Sorter(String name, boolean quadratic)
+        {
+            this.name = name;
+            this.quadratic = quadratic;
+        }
+
+        abstract Object copy(int[] keys);
+        abstract void sort(Object a);
+        abstract boolean isSorted(Object a);
+    }
+
+    private static Sorter boxed(String name, boolean quadratic, final BoxedSort s)
+    {
+        return new Sorter(name, quadratic) {
+            Object copy(int[] keys) {
+                Integer[] a = new Integer[keys.length];
+                for (int i = 0; i < a.length; i++)
+                    a[i] = keys[i];
+                return a;
+            }
+            void sort(Object a) { s.sort((Integer[]) a); }
+            boolean isSorted(Object o) {
+                Integer[] a = (Integer[]) o;
+                for (int i = 1; i < a.length; i++)
+                    if (a[i].compareTo(a[i-1]) < 0) return false;
+                return true;
+            }
+        };
+    }
+
+    private static Sorter primitive(String name, boolean quadratic, final IntSort s)
+    {
+        return new Sorter(name, quadratic) {
+            Object copy(int[] keys) { return keys.clone(); }
+            void sort(Object a) { s.sort((int[]) a); }
+            boolean isSorted(Object o) {
+                int[] a = (int[]) o;
+                for (int i = 1; i < a.length; i++)
+                    if (a[i] < a[i-1]) return false;
+                return true;
+            }
+        };
+    }
+
+    private static final Map<String, Sorter> SORTERS = new LinkedHashMap<String, Sorter>();
+
+    private static void register(Sorter s)
+    {
+        SORTERS.put(s.name, s);
+    }
+
+    static {
+        register(boxed("Bubble", true, Bubble::sort));
+        register(boxed("Selection", true, Selection::sort));
+        register(boxed("Insertion", true, a -> Insertion.sort(a, 0, a.length-1)));
+        register(boxed("Heap", false, Heap::sort));
+        register(boxed("Quick", false, Quick::sort));
+        register(boxed("Quick3way", false, a -> Quick.sort(a, Quick.Partition.THREE_WAY)));
+        register(boxed("QuickDualPivot", false, a -> Quick.sort(a, Quick.Partition.DUAL_PIVOT)));
+        register(boxed("Merge", false, Merge::sort));
+        register(boxed("MergeNatural", false, Merge::sortNatural));
+        register(boxed("MergeParallel", false, Merge::parallelSort));
+        register(boxed("MergeInPlace", false, Merge::sortInPlace));
+        register(boxed("MergeInPlaceSqrt", false, a -> Merge.sortInPlace(a, new Comparable[(int) Math.sqrt(a.length) + 1])));
+        register(boxed("SampleSort", false, SampleSort::sort));
+        register(boxed("Arrays.parallelSort", false, Arrays::parallelSort));
+        register(boxed("Sorts", false, Sorts::sort));
+
+        register(primitive("Bubble.int", true, Bubble::sort));
+        register(primitive("Selection.int", true, Selection::sort));
+        register(primitive("Insertion.int", true, Insertion::sort));
+        register(primitive("Heap.int", false, Heap::sort));
+        register(primitive("HeapBottomUp.int", false, Heap::sortBottomUp));
+        register(primitive("Heap4ary.int", false, a -> Heap.sortBottomUp(a, 4)));
+        register(primitive("Quick.int", false, Quick::sort));
+        register(primitive("Merge.int", false, Merge::sort));
+        register(primitive("MergeInPlace.int", false, Merge::sortInPlace));
+        register(primitive("MergeInPlaceSqrt.int", false, a -> Merge.sortInPlace(a, new int[(int) Math.sqrt(a.length) + 1])));
+        register(primitive("Radix.int", false, Radix::sort));
+        register(primitive("SampleSort.int", false, SampleSort::sort));
+        register(primitive("Arrays.parallelSort.int", false, Arrays::parallelSort));
+        register(primitive("Sorts.int", false, Sorts::sort));
+    }
+
+    //keys of the given distribution, the same for every sorter
+    private static int[] keys(String distribution, int n)
+    {
+        StdRandom.setSeed(SEED);
+        int[] a = new int[n];
+        if (distribution.equals("random")){
+            for (int i = 0; i < n; i++)
+                a[i] = StdRandom.uniform(Integer.MAX_VALUE) - (1 << 30);
+        }
+        else if (distribution.equals("sorted")){
+            for (int i = 0; i < n; i++)
+                a[i] = i;
+        }
+        else if (distribution.equals("reversed")){
+            for (int i = 0; i < n; i++)
+                a[i] = n - i;
+        }
+        else if (distribution.equals("fewunique")){
+            for (int i = 0; i < n; i++)
+                a[i] = StdRandom.uniform(10);
+        }
+        else if (distribution.equals("zipf")){
+            zipf(a, Math.min(n, 1 << 16), 1.0);
+        }
+        else throw new IllegalArgumentException("unknown distribution " + distribution);
+        return a;
+    }
+
+    //fill a[] with keys 0..m-1 where key k has probability proportional to 1/(k+1)^s
+    private static void zipf(int[] a, int m, double s)
+    {
+        double[] cdf = new double[m];
+        double sum = 0;
+        for (int k = 0; k < m; k++){
+            sum += 1.0 / Math.pow(k + 1, s);
+            cdf[k] = sum;
+        }
+
+        for (int i = 0; i < a.length; i++){
+            double u = StdRandom.uniform() * sum;
+            int k = Arrays.binarySearch(cdf, u);
+            a[i] = k >= 0 ? k : Math.min(-k - 1, m - 1);
+        }
+    }
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    //bytes allocated so far by this thread, -1 if the JVM cannot tell
+    private static long allocated()
+    {
+        if (THREADS instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return -1;
+    }
+
+    //run one sorter on one input, return {ns per sort, bytes allocated per sort}
+    private static double[] measure(Sorter s, int[] keys)
+    {
+        //at least WARMUP sorts and WARMUP_NANOS, small inputs need many sorts before they are compiled
+        long start = System.nanoTime();
+        for (int i = 0; i < WARMUP || System.nanoTime() - start < WARMUP_NANOS; i++){
+            Object a = s.copy(keys);
+            s.sort(a);
+        }
+
+        long time = 0, bytes = 0;
+        for (int i = 0; i < ITERATIONS; i++){
+            Object a = s.copy(keys);
+            long b0 = allocated();
+            long t0 = System.nanoTime();
+            s.sort(a);
+            time += System.nanoTime() - t0;
+            bytes += allocated() - b0;
+            if (!s.isSorted(a))
+                throw new IllegalStateException(s.name + " did not sort");
+        }
+        return new double[] { (double) time / ITERATIONS, (double) bytes / ITERATIONS };
+    }
+
+    private static List<String> split(String arg)
+    {
+        return Arrays.asList(arg.split(","));
+    }
+
+    public static void main(String[] args)
+    {
+        if (args.length > 0 && args[0].equals("list")){
+            StdOut.println("sorters:       " + SORTERS.keySet());
+            StdOut.println("distributions: " + Arrays.toString(DISTRIBUTIONS));
+            return;
+        }
+
+        List<String> names = args.length > 0 ? split(args[0]) : new ArrayList<String>(SORTERS.keySet());
+        List<String> distributions = args.length > 1 ? split(args[1]) : Arrays.asList(DISTRIBUTIONS);
+        List<Integer> sizes = new ArrayList<Integer>();
+        if (args.length > 2)
+            for (String n : split(args[2])) sizes.add(Integer.parseInt(n));
+        else
+            for (int n : SIZES) sizes.add(n);
+
+        StdOut.printf("%-24s %-10s %10s %14s %12s %14s %12s\n",
+                      "sorter", "input", "N", "ops/s", "ms/op", "bytes/op", "MB/s alloc");
+        for (String d : distributions){
+            for (int n : sizes){
+                int[] keys = keys(d, n);
+                for (String name : names){
+                    Sorter s = SORTERS.get(name);
+                    if (s == null) throw new IllegalArgumentException("unknown sorter " + name);
+                    if (s.quadratic && n > QUADRATIC_MAX) continue;
+
+                    double[] r = measure(s, keys);
+                    double seconds = r[0] / 1e9;
+                    StdOut.printf("%-24s %-10s %10d %14.3f %12.3f %14.0f %12.1f\n",
+                                  name, d, n, 1 / seconds, r[0] / 1e6, r[1], r[1] / seconds / (1 << 20));
+                }
+            }
+        }
+    }
+}
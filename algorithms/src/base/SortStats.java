@@ -0,0 +1,160 @@
+//SortStats.java
+//Description: opt-in counters of what the sorts do: compares, swaps, moves (array writes outside of swaps),
+//   recursion depth and bytes of auxiliary arrays
+//   * off unless the JVM is started with -Dbase.sortstats=true; ENABLED is a static final,
+//     so when it is off the JIT drops the hooks in less(), swap(), ... entirely
+//   * counted per thread: a sort run by other threads (Merge.parallelSort, SampleSort) only
+//     shows the part that ran on the calling thread
+//   * covers the Comparable and Comparator sorts of Quick, Merge, Heap, Selection, Bubble and Insertion
+//   * aux bytes count 4 bytes per reference (compressed oops) and the element size for primitive arrays
+//
+// Usage:
+//   SortStats s = SortStats.measure(() -> Quick.sort(a));
+//   StdOut.println(s);              // compares=... swaps=... moves=... maxDepth=... auxBytes=...
+//   Map<String, Long> m = s.toMap();
+//
+// Execution: java -Dbase.sortstats=true SortStats < tobe.txt
+//---------------------------------------------
+package base;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class SortStats
+{
+    public static final boolean ENABLED = Boolean.getBoolean("base.sortstats");
+
+    //bytes per element of a reference array, assuming compressed oops
+    static final int REFERENCE_BYTES = 4;
+
+    private static final ThreadLocal<SortStats> CURRENT = new ThreadLocal<SortStats>() {
+        protected SortStats initialValue() { return new SortStats(); }
+    };
+
+    private long compares;
+    private long swaps;
+    private long moves;
+    private long auxBytes;
+    private int depth;
+    private int maxDepth;
+
+    private SortStats() { }
+
+    //the hooks called by the sorts
+    static void compare()
+    {
+        if (ENABLED) CURRENT.get().compares++;
+    }
+
+    static void swap()
+    {
+        if (ENABLED) CURRENT.get().swaps++;
+    }
+
+    static void move(int n)
+    {
+        if (ENABLED) CURRENT.get().moves += n;
+    }
+
+    static void allocate(long bytes)
+    {
+        if (ENABLED) CURRENT.get().auxBytes += bytes;
+    }
+
+    //a recursive call starts
+    static void enter()
+    {
+        if (ENABLED){
+            SortStats s = CURRENT.get();
+            if (++s.depth > s.maxDepth)
+                s.maxDepth = s.depth;
+        }
+    }
+
+    //a recursive call returns
+    static void exit()
+    {
+        if (ENABLED) CURRENT.get().depth--;
+    }
+
+    //zero the counters of this thread
+    public static void reset()
+    {
+        SortStats s = CURRENT.get();
+        s.compares = s.swaps = s.moves = s.auxBytes = 0;
+        s.depth = s.maxDepth = 0;
+    }
+
+    //a copy of the counters of this thread
+    public static SortStats snapshot()
+    {
+        SortStats s = CURRENT.get();
+        SortStats copy = new SortStats();
+        copy.compares = s.compares;
+        copy.swaps = s.swaps;
+        copy.moves = s.moves;
+        copy.auxBytes = s.auxBytes;
+        copy.maxDepth = s.maxDepth;
+        return copy;
+    }
+
+    //the counters of one sort call
+    public static SortStats measure(Runnable sort)
+    {
+        if (!ENABLED) throw new IllegalStateException("start the JVM with -Dbase.sortstats=true");
+        reset();
+        sort.run();
+        return snapshot();
+    }
+
+    public long compares() { return compares; }
+    public long swaps()    { return swaps; }
+    public long moves()    { return moves; }
+    public long auxBytes() { return auxBytes; }
+    public int maxDepth()  { return maxDepth; }
+
+    //the counters by name, for a metrics exporter
+    public Map<String, Long> toMap()
+    {
+        Map<String, Long> m = new LinkedHashMap<String, Long>();
+        m.put("compares", compares);
+        m.put("swaps", swaps);
+        m.put("moves", moves);
+        m.put("maxDepth", (long) maxDepth);
+        m.put("auxBytes", auxBytes);
+        return m;
+    }
+
+    public String toString()
+    {
+        StringBuilder s = new StringBuilder();
+        for (Map.Entry<String, Long> e : toMap().entrySet()){
+            if (s.length() > 0) s.append(' ');
+            s.append(e.getKey()).append('=').append(e.getValue());
+        }
+        return s.toString();
+    }
+
+    //test: the counters of every sort on the same input
+    public static void main(String[] args)
+    {
+        final String[] a = StdIn.readStrings();
+
+        final String[] q = a.clone();
+        StdOut.println("Quick      " + measure(() -> Quick.sort(q)));
+        final String[] q3 = a.clone();
+        StdOut.println("Quick3way  " + measure(() -> Quick.sort(q3, Quick.Partition.THREE_WAY)));
+        final String[] m = a.clone();
+        StdOut.println("Merge      " + measure(() -> Merge.sort(m)));
+        final String[] mn = a.clone();
+        StdOut.println("Natural    " + measure(() -> Merge.sortNatural(mn)));
+        final String[] h = a.clone();
+        StdOut.println("Heap       " + measure(() -> Heap.sort(h)));
+        final String[] s = a.clone();
+        StdOut.println("Selection  " + measure(() -> Selection.sort(s)));
+        final String[] b = a.clone();
+        StdOut.println("Bubble     " + measure(() -> Bubble.sort(b)));
+        final String[] i = a.clone();
+        StdOut.println("Insertion  " + measure(() -> Insertion.sort(i, 0, i.length-1)));
+    }
+}
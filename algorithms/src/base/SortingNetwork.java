@@ -0,0 +1,123 @@
+//SortingNetwork.java
+//Description: sorting networks for subarrays of up to MAX (32) primitive keys, the small-subarray
+//   kernel of the primitive Quick and Merge sorts
+//   * a network is a fixed list of compare-exchanges (i, j), i < j: after it, a[i] <= a[j];
+//     which pairs are compared never depends on the keys, so there is no branch to mispredict,
+//     and for int/long a compare-exchange is a min and a max (conditional moves)
+//   * the pairs are Batcher's odd-even mergesort for the next power of 2 keys; the missing keys act
+//     as +infinity, which no compare-exchange moves, so the pairs touching them are dropped
+//
+//Performance: 191 compare-exchanges for 32 keys, 63 for 16, 19 for 8 (~n lg^2 n / 4),
+//             against ~n^2/4 compares, each a branch, for insertion sort on random keys
+//
+// Execution: java SortingNetwork 16
+//---------------------------------------------
+package base;
+
+public class SortingNetwork
+{
+    //largest subarray the networks sort
+    public static final int MAX = 32;
+
+    //NETWORK[n] = i0, j0, i1, j1, ... the compare-exchanges for n keys
+    private static final int[][] NETWORK = new int[MAX + 1][];
+
+    static {
+        for (int n = 0; n <= MAX; n++){
+            int size = 1;
+            while (size < n) size += size;
+            NETWORK[n] = batcher(size, n);
+        }
+    }
+
+    //Batcher's odd-even mergesort for size (a power of 2) keys, bottom-up: merge sorted blocks of
+    //p = 1, 2, 4, ... keys; only the pairs within the first n keys are kept
+    private static int[] batcher(int size, int n)
+    {
+        int[] pairs = new int[2 * size * size];
+        int count = 0;
+        for (int p = 1; p < size; p += p)
+            for (int k = p; k >= 1; k /= 2)
+                for (int j = k % p; j + k < size; j += k+k)
+                    for (int i = 0; i < k && i + j + k < size; i++)
+                        if ((i + j) / (p+p) == (i + j + k) / (p+p) && i + j + k < n){
+                            pairs[count++] = i + j;
+                            pairs[count++] = i + j + k;
+                        }
+        int[] net = new int[count];
+        System.arraycopy(pairs, 0, net, 0, count);
+        return net;
+    }
+
+    private SortingNetwork() { }
+
+    //number of compare-exchanges for n keys
+    public static int size(int n)
+    {
+        return NETWORK[n].length / 2;
+    }
+
+    //sort a[lo..hi], which holds at most MAX keys
+    public static void sort(int[] a, int lo, int hi)
+    {
+        int n = hi - lo + 1;
+        if (n < 2) return;
+        int[] net = NETWORK[n];
+        for (int c = 0; c < net.length; c += 2){
+            int i = lo + net[c], j = lo + net[c+1];
+            int v = a[i], w = a[j];
+            a[i] = Math.min(v, w);
+            a[j] = Math.max(v, w);
+        }
+    }
+
+    public static void sort(long[] a, int lo, int hi)
+    {
+        int n = hi - lo + 1;
+        if (n < 2) return;
+        int[] net = NETWORK[n];
+        for (int c = 0; c < net.length; c += 2){
+            int i = lo + net[c], j = lo + net[c+1];
+            long v = a[i], w = a[j];
+            a[i] = Math.min(v, w);
+            a[j] = Math.max(v, w);
+        }
+    }
+
+    //Math.min/max of doubles do not follow Double.compare (a NaN would be copied to both places),
+    //so the doubles are compared and swapped
+    public static void sort(double[] a, int lo, int hi)
+    {
+        int n = hi - lo + 1;
+        if (n < 2) return;
+        int[] net = NETWORK[n];
+        for (int c = 0; c < net.length; c += 2){
+            int i = lo + net[c], j = lo + net[c+1];
+            double v = a[i], w = a[j];
+            if (Double.compare(w, v) < 0){
+                a[i] = w;
+                a[j] = v;
+            }
+        }
+    }
+
+    //test: check the network for n keys on all 2^n arrays of 0s and 1s (the 0-1 principle:
+    //a network that sorts all of them sorts every input), then print its pairs
+    public static void main(String[] args)
+    {
+        int n = Integer.parseInt(args[0]);
+        int[] a = new int[n];
+        for (long bits = 0; bits < (1L << n); bits++){
+            for (int i = 0; i < n; i++)
+                a[i] = (int) (bits >>> i) & 1;
+            sort(a, 0, n-1);
+            for (int i = 1; i < n; i++)
+                if (a[i] < a[i-1]) throw new IllegalStateException("network " + n + " fails on " + Long.toBinaryString(bits));
+        }
+        StdOut.println(size(n) + " compare-exchanges:");
+        int[] net = NETWORK[n];
+        for (int c = 0; c < net.length; c += 2)
+            StdOut.print("(" + net[c] + "," + net[c+1] + ") ");
+        StdOut.println();
+    }
+}
@@ -0,0 +1,259 @@
+//Sorts.java
+//Description: one front door for sorting: sample the input, then hand it to the sorter that suits it
+//   * the profile looks at the size, SAMPLE random neighbour pairs (how presorted the input is),
+//     SAMPLE random keys (how many of them are distinct) and the element type
+//   * the choice, measured with SortBenchmark on this tree:
+//       - tiny arrays:                       insertion sort
+//       - (nearly) ascending or descending:  natural mergesort (Merge.sortNatural), or Merge for
+//                                            primitives, whose "halves already in order" check makes sorted input linear
+//       - very few distinct keys:            3-way quicksort
+//       - primitive keys, and Integer keys that are mostly distinct: LSD radix sort
+//       - String keys without a long common prefix: 3-way string quicksort (Radix)
+//       - otherwise:                         dual-pivot introsort (Quick.sort with DUAL_PIVOT)
+//   * a Site caches the choice for one call site and resamples every RESAMPLE calls,
+//     or sooner when the type or the size class (floor lgN) of the input changes
+//   * NOT stable: use Merge when equal keys must keep their order
+//
+// Usage:
+//   Sorts.sort(a);                                            profile on every call
+//   private static final Sorts.Site SITE = new Sorts.Site();  at the call site, then
+//   SITE.sort(a);
+//
+// Execution: java Sorts < tobe.txt
+//---------------------------------------------
+package base;
+
+public class Sorts
+{
+    public enum Algorithm { INSERTION, MERGE, NATURAL_MERGE, RADIX, THREE_WAY, INTROSORT }
+
+    //arrays up to this size are insertion sorted without being sampled
+    private static final int INSERTION_MAX = 48;
+    //number of neighbour pairs and of keys looked at by the profile
+    private static final int SAMPLE = 64;
+    //at most this many descents (or ascents) in the sampled pairs counts as presorted
+    private static final int PRESORTED_MAX = SAMPLE / 16;
+    //at most this many distinct keys in the sample counts as "very few", where 3-way partitioning wins
+    private static final int FEW_DISTINCT = 4;
+    //Integer keys are radix sorted when at least this many sampled keys are distinct; with fewer,
+    //dual-pivot partitioning does better than the radix sort and its packing
+    private static final int RADIX_DISTINCT = SAMPLE / 4;
+    //strings sharing a longer prefix than this are compared, not radix sorted
+    private static final int PREFIX_MAX = 8;
+
+    private Sorts() { }
+
+    public static void sort(Comparable[] a) { sort(a, choose(a)); }
+    public static void sort(int[] a)        { sort(a, choose(a)); }
+    public static void sort(long[] a)       { sort(a, choose(a)); }
+    public static void sort(double[] a)     { sort(a, choose(a)); }
+
+    //the sorter for a[]: profiles it, but does not sort it
+    public static Algorithm choose(Comparable[] a)
+    {
+        int N = a.length;
+        if (N <= INSERTION_MAX)
+            return Algorithm.INSERTION;
+
+        int descents = 0;
+        for (int s = 0; s < SAMPLE; s++){
+            int i = StdRandom.uniform(N - 1);
+            if (a[i+1].compareTo(a[i]) < 0)
+                descents++;
+        }
+        if (descents <= PRESORTED_MAX || descents >= SAMPLE - PRESORTED_MAX)
+            return Algorithm.NATURAL_MERGE;
+
+        Comparable[] sample = new Comparable[SAMPLE];
+        for (int s = 0; s < SAMPLE; s++)
+            sample[s] = a[StdRandom.uniform(N)];
+        Merge.sort(sample);
+        int distinct = 1;
+        for (int s = 1; s < SAMPLE; s++)
+            if (sample[s].compareTo(sample[s-1]) != 0)
+                distinct++;
+        if (distinct <= FEW_DISTINCT)
+            return Algorithm.THREE_WAY;
+
+        Class<?> type = a.getClass().getComponentType();
+        if (type == Integer.class && distinct >= RADIX_DISTINCT)
+            return Algorithm.RADIX;
+        if (type == String.class && commonPrefix((String) sample[0], (String) sample[SAMPLE-1]) <= PREFIX_MAX)
+            return Algorithm.RADIX;
+        return Algorithm.INTROSORT;
+    }
+
+    public static Algorithm choose(int[] a)
+    {
+        int N = a.length;
+        if (N <= INSERTION_MAX)
+            return Algorithm.INSERTION;
+        int descents = 0;
+        for (int s = 0; s < SAMPLE; s++){
+            int i = StdRandom.uniform(N - 1);
+            if (a[i+1] < a[i])
+                descents++;
+        }
+        return descents <= PRESORTED_MAX ? Algorithm.MERGE : Algorithm.RADIX;
+    }
+
+    public static Algorithm choose(long[] a)
+    {
+        int N = a.length;
+        if (N <= INSERTION_MAX)
+            return Algorithm.INSERTION;
+        int descents = 0;
+        for (int s = 0; s < SAMPLE; s++){
+            int i = StdRandom.uniform(N - 1);
+            if (a[i+1] < a[i])
+                descents++;
+        }
+        return descents <= PRESORTED_MAX ? Algorithm.MERGE : Algorithm.RADIX;
+    }
+
+    public static Algorithm choose(double[] a)
+    {
+        int N = a.length;
+        if (N <= INSERTION_MAX)
+            return Algorithm.INSERTION;
+        int descents = 0;
+        for (int s = 0; s < SAMPLE; s++){
+            int i = StdRandom.uniform(N - 1);
+            if (Double.compare(a[i+1], a[i]) < 0)
+                descents++;
+        }
+        return descents <= PRESORTED_MAX ? Algorithm.MERGE : Algorithm.RADIX;
+    }
+
+    //number of leading characters s and t have in common
+    private static int commonPrefix(String s, String t)
+    {
+        int n = Math.min(s.length(), t.length());
+        int d = 0;
+        while (d < n && s.charAt(d) == t.charAt(d))
+            d++;
+        return d;
+    }
+
+    //sort a[] with the given algorithm; algorithms that do not apply to the type fall back to introsort
+    public static void sort(Comparable[] a, Algorithm algorithm)
+    {
+        switch (algorithm){
+        case INSERTION:     Insertion.sort(a, 0, a.length-1); break;
+        case MERGE:         Merge.sort(a); break;
+        case NATURAL_MERGE: Merge.sortNatural(a); break;
+        case THREE_WAY:     Quick.sort(a, Quick.Partition.THREE_WAY); break;
+        case RADIX:
+            if (a instanceof Integer[])     radix((Integer[]) a);
+            else if (a instanceof String[]) Radix.sort((String[]) a);
+            else                            Quick.sort(a, Quick.Partition.DUAL_PIVOT);
+            break;
+        default:            Quick.sort(a, Quick.Partition.DUAL_PIVOT);
+        }
+    }
+
+    public static void sort(int[] a, Algorithm algorithm)
+    {
+        switch (algorithm){
+        case INSERTION: Insertion.sort(a); break;
+        case MERGE:
+        case NATURAL_MERGE: Merge.sort(a); break;
+        case RADIX:     Radix.sort(a); break;
+        default:        Quick.sort(a);
+        }
+    }
+
+    public static void sort(long[] a, Algorithm algorithm)
+    {
+        switch (algorithm){
+        case INSERTION: Insertion.sort(a); break;
+        case MERGE:
+        case NATURAL_MERGE: Merge.sort(a); break;
+        case RADIX:     Radix.sort(a); break;
+        default:        Quick.sort(a);
+        }
+    }
+
+    public static void sort(double[] a, Algorithm algorithm)
+    {
+        switch (algorithm){
+        case INSERTION: Insertion.sort(a); break;
+        case MERGE:
+        case NATURAL_MERGE: Merge.sort(a); break;
+        case RADIX:     Radix.sort(a); break;
+        default:        Quick.sort(a);
+        }
+    }
+
+    //Integer keys: the packed (key, index) longs of Merge.sortByKey are radix sorted
+    private static void radix(Integer[] a)
+    {
+        Merge.sortByKey(a, Integer::intValue, Radix::sort);
+    }
+
+    //the cached choice of one call site. The fields are not synchronized: a Site shared by threads
+    //may resample more often or briefly use a stale choice, which is slower but still sorts correctly
+    public static class Site
+    {
+        //calls between two samplings of the input
+        private static final int RESAMPLE = 64;
+
+        private Algorithm algorithm;
+        private Class<?> type;
+        private int sizeClass;
+        private int calls;
+
+        public void sort(Comparable[] a)
+        {
+            if (stale(a, a.length)) algorithm = choose(a);
+            Sorts.sort(a, algorithm);
+        }
+
+        public void sort(int[] a)
+        {
+            if (stale(a, a.length)) algorithm = choose(a);
+            Sorts.sort(a, algorithm);
+        }
+
+        public void sort(long[] a)
+        {
+            if (stale(a, a.length)) algorithm = choose(a);
+            Sorts.sort(a, algorithm);
+        }
+
+        public void sort(double[] a)
+        {
+            if (stale(a, a.length)) algorithm = choose(a);
+            Sorts.sort(a, algorithm);
+        }
+
+        //the current choice, null before the first sort
+        public Algorithm algorithm()
+        {
+            return algorithm;
+        }
+
+        private boolean stale(Object a, int N)
+        {
+            int lgN = 31 - Integer.numberOfLeadingZeros(Math.max(N, 1));
+            if (algorithm == null || a.getClass() != type || lgN != sizeClass || ++calls >= RESAMPLE){
+                type = a.getClass();
+                sizeClass = lgN;
+                calls = 0;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    //test
+    public static void main(String[] args)
+    {
+        String[] a = StdIn.readStrings();
+        StdOut.println(choose(a));
+        sort(a);
+        for (int i = 0; i < a.length; i++)
+            StdOut.print(a[i] + " ");
+        StdOut.println();
+    }
+}
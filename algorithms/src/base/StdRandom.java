@@ -433,6 +433,23 @@ public final class StdRandom {
         }
     }
 
+    /**
+     * Rearranges the elements of the specified array in uniformly random order.
+     *
+     * @param  a the array to shuffle
+     * @throws NullPointerException if <tt>a</tt> is <tt>null</tt>
+     */
+    public static void shuffle(long[] a) {
+        if (a == null) throw new NullPointerException("argument array is null");
+        int n = a.length;
+        for (int i = 0; i < n; i++) {
+            int r = i + uniform(n-i);     // between i and n-1
+            long temp = a[i];
+            a[i] = a[r];
+            a[r] = temp;
+        }
+    }
+
 
     /**
      * Rearranges the elements of the specified subarray in uniformly random order.
@@ -0,0 +1,177 @@
+//SymbolTableBenchmark.java
+//Description: benchmark of the symbol tables in base, over insertion orders and sizes
+//   * builds every table from N int keys in the given order (sorted: increasing like timestamps,
+//     nearlysorted: timestamps with a little jitter, random), then looks every key up in random order
+//   * warmup builds for at least a second first, then the measured iterations
+//   * reports ns per put and per get; every get is checked, so a broken table fails the run
+//   * a table whose recursion overflows the stack is reported as such instead of stopping the run
+//
+// Execution: java SymbolTableBenchmark [tables] [orders] [sizes]
+//   java SymbolTableBenchmark                               all tables, orders and sizes
+//   java SymbolTableBenchmark BST,RedBlackBST sorted 1000,100000
+//   java SymbolTableBenchmark list                          names of the tables and orders
+//---------------------------------------------
+package base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SymbolTableBenchmark
+{
+    private static final int[] SIZES = { 1000, 10000, 100000, 1000000 };
+    private static final String[] ORDERS = { "sorted", "nearlysorted", "random" };
+
+    private static final int WARMUP = 2;
+    private static final long WARMUP_NANOS = 1000000000L;
+    private static final int ITERATIONS = 3;
+    private static final long SEED = 20150101L;
+
+    //one symbol table from Integer keys to Integer values, behind a common interface
+    private interface Table
+    {
+        void put(Integer key, Integer val);
+        Integer get(Integer key);
+    }
+
+    private interface Factory
+    {
+        Table create();
+    }
+
+    private static final Map<String, Factory> TABLES = new LinkedHashMap<String, Factory>();
+
+    static {
+        TABLES.put("BST", () -> {
+            final BST<Integer, Integer> st = new BST<Integer, Integer>();
+            return new Table() {
+                public void put(Integer key, Integer val) { st.put(key, val); }
+                public Integer get(Integer key)           { return st.get(key); }
+            };
+        });
+        TABLES.put("RedBlackBST", () -> {
+            final RedBlackBST<Integer, Integer> st = new RedBlackBST<Integer, Integer>();
+            return new Table() {
+                public void put(Integer key, Integer val) { st.put(key, val); }
+                public Integer get(Integer key)           { return st.get(key); }
+            };
+        });
+        TABLES.put("BTreeST", () -> {
+            final BTreeST<Integer, Integer> st = new BTreeST<Integer, Integer>();
+            return new Table() {
+                public void put(Integer key, Integer val) { st.put(key, val); }
+                public Integer get(Integer key)           { return st.get(key); }
+            };
+        });
+        TABLES.put("BTreeST.16", () -> {
+            final BTreeST<Integer, Integer> st = new BTreeST<Integer, Integer>(16);
+            return new Table() {
+                public void put(Integer key, Integer val) { st.put(key, val); }
+                public Integer get(Integer key)           { return st.get(key); }
+            };
+        });
+    }
+
+    //N distinct keys in the given insertion order
+    private static Integer[] keys(String order, int n)
+    {
+        StdRandom.setSeed(SEED);
+        Integer[] a = new Integer[n];
+        for (int i = 0; i < n; i++)
+            a[i] = 10 * i;
+        if (order.equals("sorted")){
+            //already in order
+        }
+        else if (order.equals("nearlysorted")){
+            //every key swaps with one at most 8 places ahead, like timestamps arriving a little late
+            for (int i = 0; i < n; i++){
+                int j = Math.min(n - 1, i + StdRandom.uniform(9));
+                Integer t = a[i];
+                a[i] = a[j];
+                a[j] = t;
+            }
+        }
+        else if (order.equals("random")){
+            StdRandom.shuffle(a);
+        }
+        else throw new IllegalArgumentException("unknown order " + order);
+        return a;
+    }
+
+    //build one table and look everything up, return {ns per put, ns per get}
+    private static double[] run(Factory f, Integer[] keys, Integer[] lookups)
+    {
+        Table t = f.create();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < keys.length; i++)
+            t.put(keys[i], i);
+        long t1 = System.nanoTime();
+        long sum = 0;
+        for (Integer k : lookups){
+            Integer v = t.get(k);
+            if (v == null || !keys[v].equals(k)) throw new IllegalStateException("wrong value for key " + k);
+            sum += v;
+        }
+        long t2 = System.nanoTime();
+        return new double[] { (double) (t1 - t0) / keys.length, (double) (t2 - t1) / lookups.length, sum };
+    }
+
+    private static double[] measure(Factory f, Integer[] keys, Integer[] lookups)
+    {
+        long start = System.nanoTime();
+        for (int i = 0; i < WARMUP || System.nanoTime() - start < WARMUP_NANOS; i++)
+            run(f, keys, lookups);
+
+        double put = 0, get = 0;
+        for (int i = 0; i < ITERATIONS; i++){
+            double[] r = run(f, keys, lookups);
+            put += r[0];
+            get += r[1];
+        }
+        return new double[] { put / ITERATIONS, get / ITERATIONS };
+    }
+
+    private static List<String> split(String arg)
+    {
+        return Arrays.asList(arg.split(","));
+    }
+
+    public static void main(String[] args)
+    {
+        if (args.length > 0 && args[0].equals("list")){
+            StdOut.println("tables: " + TABLES.keySet());
+            StdOut.println("orders: " + Arrays.toString(ORDERS));
+            return;
+        }
+
+        List<String> names = args.length > 0 ? split(args[0]) : new ArrayList<String>(TABLES.keySet());
+        List<String> orders = args.length > 1 ? split(args[1]) : Arrays.asList(ORDERS);
+        List<Integer> sizes = new ArrayList<Integer>();
+        if (args.length > 2)
+            for (String n : split(args[2])) sizes.add(Integer.parseInt(n));
+        else
+            for (int n : SIZES) sizes.add(n);
+
+        StdOut.printf("%-24s %-14s %10s %14s %14s\n", "table", "order", "N", "ns/put", "ns/get");
+        for (String order : orders){
+            for (int n : sizes){
+                Integer[] keys = keys(order, n);
+                Integer[] lookups = keys.clone();
+                StdRandom.shuffle(lookups);
+                for (String name : names){
+                    Factory f = TABLES.get(name);
+                    if (f == null) throw new IllegalArgumentException("unknown table " + name);
+                    try{
+                        double[] r = measure(f, keys, lookups);
+                        StdOut.printf("%-24s %-14s %10d %14.1f %14.1f\n", name, order, n, r[0], r[1]);
+                    }
+                    catch (StackOverflowError e){
+                        StdOut.printf("%-24s %-14s %10d %29s\n", name, order, n, "StackOverflowError");
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+//TopK.java
+//Description: keep the k largest keys of a stream, in O(k) memory
+//   * the kept keys are on a MaxPQ in reverse order, so its max() is the smallest kept key,
+//     which is the threshold a new key has to beat
+//   * a new key that beats it replaces it (replaceMax, one sink), otherwise it is dropped
+//
+//Performance: N offers take ~N compares when most keys are dropped, and at most ~2Nlgk compares
+//
+// Execution: java TopK 5 < tobe.txt
+//---------------------------------------------
+package base;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+public class TopK<Key>
+{
+    private final int k;
+    private final Comparator<Key> comparator;   //optional Comparator, null for the natural order
+    private final MaxPQ<Key> pq;                //the kept keys, smallest on top
+
+    public TopK(int k)
+    {
+        this(k, null);
+    }
+
+    //keep the k largest keys in the order of the given comparator
+    public TopK(int k, Comparator<Key> comparator)
+    {
+        if(k < 1) throw new IllegalArgumentException("k must be positive");
+        this.k = k;
+        this.comparator = comparator;
+        this.pq = new MaxPQ<Key>(k, Collections.reverseOrder(comparator));
+    }
+
+    public void offer(Key key)
+    {
+        if(pq.size() < k)
+            pq.insert(key);
+        else if(less(pq.max(), key))
+            pq.replaceMax(key);
+    }
+
+    public int size()
+    {
+        return pq.size();
+    }
+
+    public boolean isEmpty()
+    {
+        return pq.isEmpty();
+    }
+
+    //the smallest of the kept keys, the k-th largest once k keys have been offered
+    public Key min()
+    {
+        if(isEmpty()) throw new NoSuchElementException("no keys offered");
+        return pq.max();
+    }
+
+    //the kept keys, largest first
+    public Iterable<Key> keys()
+    {
+        //the iterator of pq gives them smallest first
+        Stack<Key> stack = new Stack<Key>();
+        for(Key key : pq)
+            stack.push(key);
+
+        Queue<Key> q = new Queue<Key>();
+        while(!stack.isEmpty())
+            q.insert(stack.pop());
+        return q;
+    }
+
+    private boolean less(Key v, Key w)
+    {
+        if(comparator == null)
+            return ((Comparable<Key>) v).compareTo(w) < 0;
+        else
+            return comparator.compare(v, w) < 0;
+    }
+
+    //test
+    public static void main(String[] args)
+    {
+        TopK<String> top = new TopK<String>(Integer.parseInt(args[0]));
+        while(!StdIn.isEmpty())
+            top.offer(StdIn.readString());
+
+        for(String s : top.keys())
+            StdOut.print(s + " ");
+        StdOut.println();
+    }
+}